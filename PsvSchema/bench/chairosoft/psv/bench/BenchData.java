@@ -0,0 +1,192 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * BenchData.java
+ * BenchData class definition
+ */
+
+package chairosoft.psv.bench;
+
+import chairosoft.psv.Column;
+import chairosoft.psv.ColumnType;
+import chairosoft.psv.PsvRecord;
+import chairosoft.psv.PsvRecordWriter;
+import chairosoft.psv.Table;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Synthetic data for the benchmarks. There are two table shapes:
+ * <ul>
+ *   <li>an item table, keyed on a single INTEGER column, with a column of
+ *       each built-in type (the STRING columns have high and low
+ *       cardinality);</li>
+ *   <li>an entry table, keyed on a STRING and an INTEGER column, with a
+ *       reference to the item table.</li>
+ * </ul>
+ * Records are a pure function of the seed and the line index, so the
+ * same arguments always give the same file. Run {@link #main} to write
+ * files for use outside of JMH.
+ * <p>
+ * Tables and reference types are registered by name, so each table made
+ * here gets a unique name (the given prefix and a sequence number), and
+ * setting up a benchmark more than once in the same JVM does not clash.
+ */
+public class BenchData
+{
+    // constants
+    public static final long DEFAULT_SEED = 0x5053564265E2L;
+    public static final String[] CATEGORIES = { "alpha", "beta", "gamma", "delta", "epsilon", "zeta", "eta", "theta" };
+    public static final String[] REGIONS = { "north", "south", "east", "west", "central" };
+    
+    // static fields
+    private static final AtomicInteger tableCount = new AtomicInteger();
+    
+    // static methods
+    private static String uniqueName(String prefix)
+    {
+        return prefix + BenchData.tableCount.incrementAndGet();
+    }
+    
+    public static Table createItemTable(String namePrefix)
+    {
+        return new Table(BenchData.uniqueName(namePrefix), false, null, new Column[]
+        {
+            new Column("id", ColumnType.INTEGER, true, true),
+            new Column("name", ColumnType.STRING, false, true),
+            new Column("category", ColumnType.STRING, false, true),
+            new Column("quantity", ColumnType.INTEGER, false, false),
+            new Column("active", ColumnType.BOOLEAN, false, false),
+        });
+    }
+    
+    public static Table createEntryTable(String namePrefix, Table itemTable)
+    {
+        return new Table(BenchData.uniqueName(namePrefix), false, null, new Column[]
+        {
+            new Column("region", ColumnType.STRING, true, true),
+            new Column("sequence", ColumnType.INTEGER, true, true),
+            new Column("item", new ColumnType.ReferenceColumnType(itemTable), false, true),
+            new Column("note", ColumnType.STRING, false, false),
+        });
+    }
+    
+    public static PsvRecord itemRecord(int i, long seed)
+    {
+        Random random = new Random(seed ^ (i * 0x9E3779B97F4A7C15L));
+        return new PsvRecord(new String[]
+        {
+            Integer.toString(i),
+            "item-" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36),
+            CATEGORIES[random.nextInt(CATEGORIES.length)],
+            Integer.toString(random.nextInt(1000000) - 1000),
+            Boolean.toString(random.nextBoolean()),
+        });
+    }
+    
+    public static PsvRecord entryRecord(int i, int itemCount, long seed)
+    {
+        Random random = new Random(seed ^ (i * 0xC2B2AE3D27D4EB4FL));
+        return new PsvRecord(new String[]
+        {
+            REGIONS[i % REGIONS.length],
+            Integer.toString(i / REGIONS.length),
+            Integer.toString(random.nextInt(itemCount)),
+            random.nextInt(4) == 0 ? "" : "note " + random.nextInt(100000),
+        });
+    }
+    
+    public static void fillItems(Table itemTable, int rowCount, long seed)
+    {
+        for (int i = 0; i < rowCount; ++i)
+        {
+            itemTable.addRecord(BenchData.itemRecord(i, seed));
+        }
+    }
+    
+    public static void fillEntries(Table entryTable, int rowCount, int itemCount, long seed)
+    {
+        for (int i = 0; i < rowCount; ++i)
+        {
+            entryTable.addRecord(BenchData.entryRecord(i, itemCount, seed));
+        }
+    }
+    
+    public static void writeItems(File file, Table itemTable, int lineCount, long seed)
+        throws IOException
+    {
+        try (PsvRecordWriter writer = new PsvRecordWriter(file, BenchData.headerOf(itemTable)))
+        {
+            for (int i = 0; i < lineCount; ++i)
+            {
+                writer.write(BenchData.itemRecord(i, seed));
+            }
+        }
+    }
+    
+    public static void writeEntries(File file, Table entryTable, int lineCount, int itemCount, long seed)
+        throws IOException
+    {
+        try (PsvRecordWriter writer = new PsvRecordWriter(file, BenchData.headerOf(entryTable)))
+        {
+            for (int i = 0; i < lineCount; ++i)
+            {
+                writer.write(BenchData.entryRecord(i, itemCount, seed));
+            }
+        }
+    }
+    
+    /** Writes a temporary item file that is deleted when the JVM exits. */
+    public static File createItemFile(int lineCount)
+        throws IOException
+    {
+        File result = File.createTempFile("psv-bench-items-" + lineCount + "-", ".psv");
+        result.deleteOnExit();
+        BenchData.writeItems(result, BenchData.createItemTable("BenchItemFile"), lineCount, DEFAULT_SEED);
+        return result;
+    }
+    
+    public static PsvRecord headerOf(Table table)
+    {
+        List<String> values = new ArrayList<>();
+        for (Column column : table)
+        {
+            values.add(column.name);
+        }
+        return new PsvRecord(values);
+    }
+    
+    /**
+     * Writes {@code items-N.psv} and {@code entries-N.psv} into a directory.
+     * Usage: {@code BenchData <directory> <lineCount>...}
+     */
+    public static void main(String[] args)
+        throws IOException
+    {
+        if (args.length < 2)
+        {
+            System.err.println("Usage: BenchData <directory> <lineCount>...");
+            System.exit(1);
+        }
+        File directory = new File(args[0]);
+        directory.mkdirs();
+        Table itemTable = BenchData.createItemTable("BenchItem");
+        Table entryTable = BenchData.createEntryTable("BenchEntry", itemTable);
+        for (int a = 1; a < args.length; ++a)
+        {
+            int lineCount = Integer.parseInt(args[a]);
+            File itemFile = new File(directory, "items-" + lineCount + ".psv");
+            File entryFile = new File(directory, "entries-" + lineCount + ".psv");
+            BenchData.writeItems(itemFile, itemTable, lineCount, DEFAULT_SEED);
+            BenchData.writeEntries(entryFile, entryTable, lineCount, lineCount, DEFAULT_SEED);
+            System.out.println(String.format("Wrote %s lines to %s and %s.", lineCount, itemFile, entryFile));
+        }
+    }
+}
\ No newline at end of file
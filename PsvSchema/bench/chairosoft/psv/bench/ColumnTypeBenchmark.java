@@ -0,0 +1,119 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * ColumnTypeBenchmark.java
+ * ColumnTypeBenchmark class definition
+ */
+
+package chairosoft.psv.bench;
+
+import chairosoft.psv.ColumnType;
+import chairosoft.psv.ColumnValue;
+import chairosoft.psv.PsvRecord;
+import chairosoft.psv.Row;
+import chairosoft.psv.Table;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Converting literals with {@link ColumnType#parseNew} and
+ * {@link ColumnType#parseInto} for each built-in type, and through
+ * {@link Table#parseValue} (which goes through the column's
+ * {@link chairosoft.psv.StringDictionary} for STRING columns). REFERENCE
+ * literals are resolved against an item table of
+ * {@value #REFERENCED_ROW_COUNT} rows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ColumnTypeBenchmark
+{
+    // constants
+    private static final int LITERAL_COUNT = 1 << 10;
+    public static final int REFERENCED_ROW_COUNT = 10000;
+    
+    // fields
+    @Param({ "STRING", "INTEGER", "BOOLEAN", "REFERENCE" })
+    public String typeName;
+    private ColumnType type;
+    private Table table;
+    private int columnIndex;
+    private String[] literals;
+    private ColumnValue target;
+    private int next = 0;
+    
+    // instance methods
+    @Setup
+    public void setUp()
+    {
+        Table itemTable = BenchData.createItemTable("BenchTypeItem");
+        BenchData.fillItems(itemTable, REFERENCED_ROW_COUNT, BenchData.DEFAULT_SEED);
+        Table entryTable = BenchData.createEntryTable("BenchTypeEntry", itemTable);
+        
+        switch (this.typeName)
+        {
+            case "STRING":    this.table = itemTable;  this.columnIndex = itemTable.getColumnIndex("category"); break;
+            case "INTEGER":   this.table = itemTable;  this.columnIndex = itemTable.getColumnIndex("quantity"); break;
+            case "BOOLEAN":   this.table = itemTable;  this.columnIndex = itemTable.getColumnIndex("active"); break;
+            case "REFERENCE": this.table = entryTable; this.columnIndex = entryTable.getColumnIndex("item"); break;
+            default:
+                String message = String.format("Unknown type name (%s).", this.typeName);
+                throw new IllegalArgumentException(message);
+        }
+        this.type = this.table.getColumn(this.columnIndex).type;
+        
+        this.literals = new String[LITERAL_COUNT];
+        for (int i = 0; i < LITERAL_COUNT; ++i)
+        {
+            PsvRecord record = (this.table == itemTable)
+                ? BenchData.itemRecord(i, BenchData.DEFAULT_SEED)
+                : BenchData.entryRecord(i, REFERENCED_ROW_COUNT, BenchData.DEFAULT_SEED);
+            this.literals[i] = record.values[this.columnIndex];
+        }
+        this.target = (this.type instanceof ColumnType.ReferenceColumnType)
+            ? new ColumnValue.ReferenceColumnValue(itemTable, (Row)null)
+            : this.type.parseNew(this.literals[0]);
+    }
+    
+    private String nextLiteral()
+    {
+        return this.literals[this.next++ & (LITERAL_COUNT - 1)];
+    }
+    
+    @Benchmark
+    public ColumnValue parseNew()
+    {
+        return this.type.parseNew(this.nextLiteral());
+    }
+    
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public ColumnValue parseInto()
+    {
+        this.type.parseInto(this.nextLiteral(), this.target);
+        return this.target;
+    }
+    
+    @Benchmark
+    public ColumnValue tableParseValue()
+    {
+        return this.table.parseValue(this.columnIndex, this.nextLiteral());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * PsvRecordBenchmark.java
+ * PsvRecordBenchmark class definition
+ */
+
+package chairosoft.psv.bench;
+
+import chairosoft.psv.PsvRecord;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Splitting single lines into a {@link PsvRecord}, with and without the
+ * expected value count, against {@link String#split} as a baseline.
+ * Lines are cycled through so that the branch predictor does not learn a
+ * single line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PsvRecordBenchmark
+{
+    // constants
+    private static final int LINE_COUNT = 1 << 10;
+    
+    // fields
+    private String[] lines;
+    private String[] targetValues;
+    private PsvRecord record;
+    private int valueCount;
+    private int next = 0;
+    
+    // instance methods
+    @Setup
+    public void setUp()
+        throws IOException
+    {
+        this.lines = new String[LINE_COUNT];
+        for (int i = 0; i < LINE_COUNT; ++i)
+        {
+            StringWriter writer = new StringWriter();
+            BenchData.itemRecord(i, BenchData.DEFAULT_SEED).writeTo(writer);
+            String line = writer.toString();
+            this.lines[i] = line.substring(0, line.length() - 1);
+        }
+        this.valueCount = PsvRecord.countValues(this.lines[0]);
+        this.targetValues = new String[this.valueCount];
+        this.record = new PsvRecord(this.lines[0], this.valueCount);
+    }
+    
+    private String nextLine()
+    {
+        return this.lines[this.next++ & (LINE_COUNT - 1)];
+    }
+    
+    @Benchmark
+    public PsvRecord splitWithExpectedCount()
+    {
+        return new PsvRecord(this.nextLine(), this.valueCount);
+    }
+    
+    @Benchmark
+    public PsvRecord splitWithCountedValues()
+    {
+        return new PsvRecord(this.nextLine());
+    }
+    
+    @Benchmark
+    public String[] splitIntoExistingArray()
+    {
+        PsvRecord.splitInto(this.nextLine(), this.targetValues);
+        return this.targetValues;
+    }
+    
+    @Benchmark
+    public String[] splitRegexBaseline()
+    {
+        return this.nextLine().split(PsvRecord.VALUE_DELIMITER_REGEX, -1);
+    }
+    
+    @Benchmark
+    public String writeTo()
+        throws IOException
+    {
+        StringWriter writer = new StringWriter(64);
+        this.record.writeTo(writer);
+        return writer.toString();
+    }
+}
\ No newline at end of file
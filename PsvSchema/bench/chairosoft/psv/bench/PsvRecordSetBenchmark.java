@@ -0,0 +1,132 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * PsvRecordSetBenchmark.java
+ * PsvRecordSetBenchmark class definition
+ */
+
+package chairosoft.psv.bench;
+
+import chairosoft.psv.PsvRecord;
+import chairosoft.psv.PsvRecordSet;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading whole generated item files with {@link PsvRecordSet#readFrom}
+ * and {@link PsvRecordSet#readFromParallel}, and writing a loaded record
+ * set back out with {@link PsvRecordSet#writeTo}, both to a discarding
+ * writer (formatting only) and to a file. The larger sizes need a large
+ * heap; pass {@code -p lines=...} to run only some of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms6g", "-Xmx6g" })
+public class PsvRecordSetBenchmark
+{
+    // fields
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    public int lines;
+    private File inputFile;
+    private File outputFile;
+    private PsvRecordSet recordSet;
+    
+    // instance methods
+    @Setup(Level.Trial)
+    public void setUp()
+        throws IOException
+    {
+        this.inputFile = BenchData.createItemFile(this.lines);
+        this.outputFile = File.createTempFile("psv-bench-out-", ".psv");
+        this.outputFile.deleteOnExit();
+        this.recordSet = PsvRecordSet.readFrom(this.inputFile);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        this.recordSet = null;
+        this.inputFile.delete();
+        this.outputFile.delete();
+    }
+    
+    @Benchmark
+    public PsvRecordSet readFrom()
+    {
+        return PsvRecordSet.readFrom(this.inputFile);
+    }
+    
+    @Benchmark
+    public PsvRecordSet readFromWithExpectedCount()
+    {
+        return PsvRecordSet.readFrom(this.inputFile, this.recordSet.headerRecord.values.length);
+    }
+    
+    @Benchmark
+    public PsvRecordSet readFromParallel()
+    {
+        return PsvRecordSet.readFromParallel(this.inputFile, this.recordSet.headerRecord.values.length);
+    }
+    
+    @Benchmark
+    public long writeToDiscardingWriter()
+        throws IOException
+    {
+        CountingWriter writer = new CountingWriter();
+        this.recordSet.writeTo(writer);
+        return writer.count;
+    }
+    
+    @Benchmark
+    public long writeToFile()
+        throws IOException
+    {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.outputFile), PsvRecord.CHARSET)))
+        {
+            this.recordSet.writeTo(writer);
+        }
+        return this.outputFile.length();
+    }
+    
+    
+    // static inner classes
+    /** Counts the characters written and otherwise drops them. */
+    private static class CountingWriter extends Writer
+    {
+        // fields
+        public long count = 0;
+        
+        // instance methods
+        @Override public void write(int c) { ++this.count; }
+        @Override public void write(String str) { this.count += str.length(); }
+        @Override public void write(String str, int off, int len) { this.count += len; }
+        @Override public void write(char[] cbuf, int off, int len) { this.count += len; }
+        @Override public void flush() { }
+        @Override public void close() { }
+    }
+}
\ No newline at end of file
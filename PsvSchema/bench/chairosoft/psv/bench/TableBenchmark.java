@@ -0,0 +1,147 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * TableBenchmark.java
+ * TableBenchmark class definition
+ */
+
+package chairosoft.psv.bench;
+
+import chairosoft.psv.ColumnValue;
+import chairosoft.psv.PsvRecord;
+import chairosoft.psv.Row;
+import chairosoft.psv.Table;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Primary key lookups through {@link Table#rowsByKey} and
+ * {@link Table#getRowByKey}, for a single INTEGER key (the item table) and
+ * a STRING + INTEGER composite key (the entry table), plus
+ * {@link Table#getPsvIdentifierFromRow} and parsing a whole record into a
+ * table. Lookup keys are freshly built, not the stored key objects, and
+ * are visited in random order so the lookups miss the cache the way real
+ * ones do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class TableBenchmark
+{
+    // constants
+    private static final int PROBE_COUNT = 1 << 12;
+    
+    // fields
+    @Param({ "1000", "100000", "1000000" })
+    public int rows;
+    private Table itemTable;
+    private Table entryTable;
+    private int[] itemIds;
+    private Row.Key[] itemKeys;
+    private Row.Key[] entryKeys;
+    private ColumnValue[][] entryKeyValues;
+    private Row[] itemRows;
+    private Row[] entryRows;
+    private PsvRecord[] entryRecords;
+    private int next = 0;
+    
+    // instance methods
+    @Setup
+    public void setUp()
+    {
+        this.itemTable = BenchData.createItemTable("BenchTableItem");
+        this.entryTable = BenchData.createEntryTable("BenchTableEntry", this.itemTable);
+        BenchData.fillItems(this.itemTable, this.rows, BenchData.DEFAULT_SEED);
+        BenchData.fillEntries(this.entryTable, this.rows, this.rows, BenchData.DEFAULT_SEED);
+        
+        Random random = new Random(BenchData.DEFAULT_SEED);
+        this.itemIds = new int[PROBE_COUNT];
+        this.itemKeys = new Row.Key[PROBE_COUNT];
+        this.entryKeys = new Row.Key[PROBE_COUNT];
+        this.entryKeyValues = new ColumnValue[PROBE_COUNT][];
+        this.itemRows = new Row[PROBE_COUNT];
+        this.entryRows = new Row[PROBE_COUNT];
+        this.entryRecords = new PsvRecord[PROBE_COUNT];
+        for (int p = 0; p < PROBE_COUNT; ++p)
+        {
+            int i = random.nextInt(this.rows);
+            this.itemIds[p] = i;
+            this.itemKeys[p] = new Row.Key(this.itemTable, new ColumnValue[] { new ColumnValue.IntegerColumnValue(i) });
+            PsvRecord entryRecord = BenchData.entryRecord(i, this.rows, BenchData.DEFAULT_SEED);
+            this.entryKeyValues[p] = new ColumnValue[]
+            {
+                new ColumnValue.StringColumnValue(entryRecord.values[0]),
+                new ColumnValue.IntegerColumnValue(Integer.parseInt(entryRecord.values[1])),
+            };
+            this.entryKeys[p] = new Row.Key(this.entryTable, this.entryKeyValues[p]);
+            this.itemRows[p] = this.itemTable.getRowByKey(i);
+            this.entryRows[p] = this.entryTable.rowsByKey.get(this.entryKeys[p]);
+            this.entryRecords[p] = entryRecord;
+        }
+    }
+    
+    private int nextProbe()
+    {
+        return this.next++ & (PROBE_COUNT - 1);
+    }
+    
+    @Benchmark
+    public Row singleKeyRowsByKey()
+    {
+        return this.itemTable.rowsByKey.get(this.itemKeys[this.nextProbe()]);
+    }
+    
+    @Benchmark
+    public Row singleKeyGetRowByInt()
+    {
+        return this.itemTable.getRowByKey(this.itemIds[this.nextProbe()]);
+    }
+    
+    @Benchmark
+    public Row compositeKeyRowsByKey()
+    {
+        return this.entryTable.rowsByKey.get(this.entryKeys[this.nextProbe()]);
+    }
+    
+    @Benchmark
+    public Row compositeKeyGetRowByValues()
+    {
+        return this.entryTable.getRowByKey(this.entryKeyValues[this.nextProbe()]);
+    }
+    
+    @Benchmark
+    public String singleKeyPsvIdentifier()
+    {
+        return this.itemTable.getPsvIdentifierFromRow(this.itemRows[this.nextProbe()]);
+    }
+    
+    @Benchmark
+    public String compositeKeyPsvIdentifier()
+    {
+        return this.entryTable.getPsvIdentifierFromRow(this.entryRows[this.nextProbe()]);
+    }
+    
+    @Benchmark
+    public Row parseRow()
+    {
+        return this.entryTable.parseRow(this.entryRecords[this.nextProbe()]);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * ColumnNameIndex.java
+ * ColumnNameIndex class definition
+ */
+
+package chairosoft.psv;
+
+/**
+ * Maps column names to column indexes for one {@link Table}. The slot array
+ * is grown (up to a limit) until no two names share a slot, so a lookup is
+ * normally a single probe and a single String comparison; any remaining
+ * collisions are handled by linear probing.
+ */
+public final class ColumnNameIndex
+{
+    // constants
+    public static final int MAX_SLOTS_PER_COLUMN = 16;
+    
+    // fields
+    private final String[] names;
+    private final int[] indexes;
+    private final int mask;
+    
+    // constructor
+    public ColumnNameIndex(Column[] columns)
+    {
+        int minSlotCount = Integer.highestOneBit(Math.max(1, columns.length * 2 - 1)) << 1;
+        int maxSlotCount = minSlotCount * MAX_SLOTS_PER_COLUMN;
+        int slotCount = minSlotCount;
+        while (slotCount < maxSlotCount && ColumnNameIndex.hasCollision(columns, slotCount - 1))
+        {
+            slotCount <<= 1;
+        }
+        
+        this.mask = slotCount - 1;
+        this.names = new String[slotCount];
+        this.indexes = new int[slotCount];
+        for (int i = 0; i < columns.length; ++i)
+        {
+            String name = columns[i].name;
+            int slot = ColumnNameIndex.spread(name.hashCode()) & this.mask;
+            while (this.names[slot] != null && !this.names[slot].equals(name))
+            {
+                slot = (slot + 1) & this.mask;
+            }
+            this.names[slot] = name;
+            this.indexes[slot] = i;
+        }
+    }
+    
+    // static methods
+    private static int spread(int hash) { return hash ^ (hash >>> 16); }
+    
+    private static boolean hasCollision(Column[] columns, int mask)
+    {
+        boolean[] isUsed = new boolean[mask + 1];
+        for (Column column : columns)
+        {
+            int slot = ColumnNameIndex.spread(column.name.hashCode()) & mask;
+            if (isUsed[slot]) { return true; }
+            isUsed[slot] = true;
+        }
+        return false;
+    }
+    
+    // instance methods
+    public int indexOf(String columnName)
+    {
+        int slot = ColumnNameIndex.spread(columnName.hashCode()) & this.mask;
+        for (String name = this.names[slot]; name != null; name = this.names[slot])
+        {
+            if (name == columnName || name.equals(columnName)) { return this.indexes[slot]; }
+            slot = (slot + 1) & this.mask;
+        }
+        return -1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,282 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * ColumnStore.java
+ * ColumnStore class definition
+ */
+
+package chairosoft.psv;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Columnar storage for the rows of a {@link Table}. INTEGER columns are
+ * kept in an {@code int[]}, BOOLEAN columns are packed into a
+ * {@code long[]} bit set, reference columns hold the target {@link Row}s,
+ * and every other column keeps its literal String. Rows are read through
+ * {@link RowView}s, which are only a store and a row index.
+ */
+public class ColumnStore implements Iterable<ColumnStore.RowView>
+{
+    // constants
+    public static final int INITIAL_CAPACITY = 16;
+    
+    // fields
+    public final Table table;
+    private final Column[] columns;
+    private final int[][] intColumns;
+    private final long[][] booleanColumns;
+    private final Row[][] referenceColumns;
+    private final String[][] stringColumns;
+    private int capacity = INITIAL_CAPACITY;
+    private int size = 0;
+    public final int size() { return this.size; }
+    
+    // constructor
+    public ColumnStore(Table _table)
+    {
+        this.table = _table;
+        this.columns = this.table.columns;
+        this.intColumns = new int[this.columns.length][];
+        this.booleanColumns = new long[this.columns.length][];
+        this.referenceColumns = new Row[this.columns.length][];
+        this.stringColumns = new String[this.columns.length][];
+        for (int i = 0; i < this.columns.length; ++i)
+        {
+            ColumnType type = this.columns[i].type;
+            if (type == ColumnType.INTEGER) { this.intColumns[i] = new int[this.capacity]; }
+            else if (type == ColumnType.BOOLEAN) { this.booleanColumns[i] = new long[ColumnStore.wordCount(this.capacity)]; }
+            else if (type instanceof ColumnType.ReferenceColumnType) { this.referenceColumns[i] = new Row[this.capacity]; }
+            else { this.stringColumns[i] = new String[this.capacity]; }
+        }
+    }
+    
+    // static methods
+    private static int wordCount(int bitCount) { return (bitCount + 63) >>> 6; }
+    
+    // instance methods
+    public int addRecord(PsvRecord record)
+    {
+        this.checkValueCount(record.values.length);
+        int rowIndex = this.nextRowIndex();
+        for (int i = 0; i < this.columns.length; ++i)
+        {
+            String literal = record.values[i];
+            if (this.intColumns[i] != null) { this.intColumns[i][rowIndex] = Integer.parseInt(literal); }
+            else if (this.booleanColumns[i] != null) { this.setBit(i, rowIndex, Boolean.parseBoolean(literal)); }
+            else if (this.referenceColumns[i] != null) { this.referenceColumns[i][rowIndex] = literal.isEmpty() ? null : ((ColumnType.ReferenceColumnType)this.columns[i].type).table.getRowFromPsvIdentifier(literal); }
+            else { this.stringColumns[i][rowIndex] = literal; }
+        }
+        return this.commitRow(rowIndex);
+    }
+    
+    public int addValues(ColumnValue[] values)
+    {
+        this.checkValueCount(values.length);
+        int rowIndex = this.nextRowIndex();
+        for (int i = 0; i < this.columns.length; ++i)
+        {
+            ColumnValue value = values[i];
+            if (this.intColumns[i] != null) { this.intColumns[i][rowIndex] = ((ColumnValue.IntegerColumnValue)value).value; }
+            else if (this.booleanColumns[i] != null) { this.setBit(i, rowIndex, ((ColumnValue.BooleanColumnValue)value).value); }
+            else if (this.referenceColumns[i] != null) { this.referenceColumns[i][rowIndex] = ((ColumnValue.ReferenceColumnValue)value).value; }
+            else { this.stringColumns[i][rowIndex] = value.getStringValue(); }
+        }
+        return this.commitRow(rowIndex);
+    }
+    
+    public int addRow(Row row)
+    {
+        return this.addValues(row.values);
+    }
+    
+    public int addAll(PsvRecordSet recordSet)
+    {
+        int count = 0;
+        for (PsvRecord record : recordSet.records)
+        {
+            this.addRecord(record);
+            ++count;
+        }
+        return count;
+    }
+    
+    private void checkValueCount(int valueCount)
+    {
+        if (valueCount != this.columns.length)
+        {
+            String message = String.format("Number of columns (%s) does not match number of values (%s) given to ColumnStore.", this.columns.length, valueCount);
+            throw new IllegalArgumentException(message);
+        }
+    }
+    
+    private int nextRowIndex()
+    {
+        if (this.size == this.capacity)
+        {
+            int newCapacity = this.capacity << 1;
+            for (int i = 0; i < this.columns.length; ++i)
+            {
+                if (this.intColumns[i] != null) { this.intColumns[i] = Arrays.copyOf(this.intColumns[i], newCapacity); }
+                else if (this.booleanColumns[i] != null) { this.booleanColumns[i] = Arrays.copyOf(this.booleanColumns[i], ColumnStore.wordCount(newCapacity)); }
+                else if (this.referenceColumns[i] != null) { this.referenceColumns[i] = Arrays.copyOf(this.referenceColumns[i], newCapacity); }
+                else { this.stringColumns[i] = Arrays.copyOf(this.stringColumns[i], newCapacity); }
+            }
+            this.capacity = newCapacity;
+        }
+        return this.size;
+    }
+    
+    private int commitRow(int rowIndex)
+    {
+        ++this.size;
+        return rowIndex;
+    }
+    
+    private void setBit(int columnIndex, int rowIndex, boolean value)
+    {
+        long mask = 1L << rowIndex;
+        if (value) { this.booleanColumns[columnIndex][rowIndex >>> 6] |= mask; }
+        else { this.booleanColumns[columnIndex][rowIndex >>> 6] &= ~mask; }
+    }
+    
+    private void checkRowIndex(int rowIndex)
+    {
+        if (rowIndex < 0 || rowIndex >= this.size)
+        {
+            String message = String.format("Row index (%s) is out of range for ColumnStore of size %s.", rowIndex, this.size);
+            throw new IndexOutOfBoundsException(message);
+        }
+    }
+    
+    private IllegalArgumentException wrongColumnType(int columnIndex, String expectedKind)
+    {
+        Column column = this.columns[columnIndex];
+        String message = String.format("Column (%s) of table (%s) has type %s, not %s.", column.name, this.table.name, column.type, expectedKind);
+        return new IllegalArgumentException(message);
+    }
+    
+    public int getInt(int rowIndex, int columnIndex)
+    {
+        this.checkRowIndex(rowIndex);
+        int[] column = this.intColumns[columnIndex];
+        if (column == null) { throw this.wrongColumnType(columnIndex, "INTEGER"); }
+        return column[rowIndex];
+    }
+    
+    public boolean getBoolean(int rowIndex, int columnIndex)
+    {
+        this.checkRowIndex(rowIndex);
+        long[] column = this.booleanColumns[columnIndex];
+        if (column == null) { throw this.wrongColumnType(columnIndex, "BOOLEAN"); }
+        return (column[rowIndex >>> 6] & (1L << rowIndex)) != 0;
+    }
+    
+    public Row getReference(int rowIndex, int columnIndex)
+    {
+        this.checkRowIndex(rowIndex);
+        Row[] column = this.referenceColumns[columnIndex];
+        if (column == null) { throw this.wrongColumnType(columnIndex, "a reference"); }
+        return column[rowIndex];
+    }
+    
+    public String getString(int rowIndex, int columnIndex)
+    {
+        this.checkRowIndex(rowIndex);
+        String[] column = this.stringColumns[columnIndex];
+        if (column == null) { throw this.wrongColumnType(columnIndex, "a string"); }
+        return column[rowIndex];
+    }
+    
+    public String getStringValue(int rowIndex, int columnIndex)
+    {
+        if (this.intColumns[columnIndex] != null) { return Integer.toString(this.getInt(rowIndex, columnIndex)); }
+        if (this.booleanColumns[columnIndex] != null) { return Boolean.toString(this.getBoolean(rowIndex, columnIndex)); }
+        if (this.referenceColumns[columnIndex] != null) { Row target = this.getReference(rowIndex, columnIndex); return (target == null) ? "" : target.getPsvIdentifier(); }
+        return this.getString(rowIndex, columnIndex);
+    }
+    
+    public ColumnValue getValue(int rowIndex, int columnIndex)
+    {
+        Column column = this.columns[columnIndex];
+        if (this.intColumns[columnIndex] != null) { return new ColumnValue.IntegerColumnValue(this.getInt(rowIndex, columnIndex)); }
+        if (this.booleanColumns[columnIndex] != null) { return new ColumnValue.BooleanColumnValue(this.getBoolean(rowIndex, columnIndex)); }
+        if (this.referenceColumns[columnIndex] != null) { return new ColumnValue.ReferenceColumnValue(((ColumnType.ReferenceColumnType)column.type).table, this.getReference(rowIndex, columnIndex)); }
+        return column.type.parseNew(this.getString(rowIndex, columnIndex));
+    }
+    
+    public RowView getRow(int rowIndex)
+    {
+        this.checkRowIndex(rowIndex);
+        return new RowView(this, rowIndex);
+    }
+    
+    @Override
+    public Iterator<RowView> iterator()
+    {
+        return new Iterator<RowView>()
+        {
+            private int rowIndex = 0;
+            @Override public boolean hasNext() { return this.rowIndex < ColumnStore.this.size; }
+            @Override public RowView next()
+            {
+                if (!this.hasNext()) { throw new NoSuchElementException(); }
+                return new RowView(ColumnStore.this, this.rowIndex++);
+            }
+            @Override public void remove() { throw new UnsupportedOperationException(); }
+        };
+    }
+    
+    
+    // static inner classes
+    public static class RowView
+    {
+        // fields
+        public final ColumnStore store;
+        public final int index;
+        
+        // constructor
+        public RowView(ColumnStore _store, int _index)
+        {
+            this.store = _store;
+            this.index = _index;
+        }
+        
+        // instance methods
+        public int getInt(int columnIndex) { return this.store.getInt(this.index, columnIndex); }
+        public boolean getBoolean(int columnIndex) { return this.store.getBoolean(this.index, columnIndex); }
+        public Row getReference(int columnIndex) { return this.store.getReference(this.index, columnIndex); }
+        public String getString(int columnIndex) { return this.store.getString(this.index, columnIndex); }
+        public String getStringValue(int columnIndex) { return this.store.getStringValue(this.index, columnIndex); }
+        public ColumnValue getValue(int columnIndex) { return this.store.getValue(this.index, columnIndex); }
+        public ColumnValue getValue(String columnName)
+        {
+            int columnIndex = this.store.table.getColumnIndex(columnName);
+            return (columnIndex < 0) ? null : this.getValue(columnIndex);
+        }
+        
+        public PsvRecord toPsvRecord()
+        {
+            PsvRecord result = new PsvRecord(this.store.columns.length);
+            for (int i = 0; i < result.values.length; ++i)
+            {
+                result.values[i] = this.getStringValue(i);
+            }
+            return result;
+        }
+        
+        public Row toRow()
+        {
+            ColumnValue[] values = new ColumnValue[this.store.columns.length];
+            for (int i = 0; i < values.length; ++i)
+            {
+                values[i] = this.getValue(i);
+            }
+            return new Row(this.store.table, values);
+        }
+    }
+}
\ No newline at end of file
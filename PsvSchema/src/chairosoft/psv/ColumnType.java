@@ -10,28 +10,30 @@
 package chairosoft.psv;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 
 public abstract class ColumnType<V extends ColumnValue>
 {
+    // static fields (initialized before the constants, which register themselves)
+    private static final List<ColumnType> typesById = new CopyOnWriteArrayList<>();
+    public static ColumnType getById(int typeId) { return ColumnType.typesById.get(typeId); }
+    public static int getTypeCount() { return ColumnType.typesById.size(); }
+    private static final ConcurrentHashMap<String, ColumnType> typesByName = new ConcurrentHashMap<>();
+    public static ColumnType getByName(String typeName) { return ColumnType.typesByName.get(typeName); }
+    
     // constants
     public static final ColumnType STRING = StringColumnType.SINGLETON;
     public static final ColumnType INTEGER = IntegerColumnType.SINGLETON;
     public static final ColumnType BOOLEAN = BooleanColumnType.SINGLETON;
     
-    // static fields
-    private static final ArrayList<ColumnType> typesById = new ArrayList<>();
-    public static ColumnType getById(int typeId) { return ColumnType.typesById.get(typeId); }
-    private static final HashMap<String, ColumnType> typesByName = new HashMap<>();
-    public static ColumnType getByName(String typeName) { return ColumnType.typesByName.get(typeName); }
-    
     // instance fields
     public final int id;
-    { ColumnType.typesById.add(this); this.id = ColumnType.typesById.size() - 1; }
+    { synchronized (ColumnType.typesById) { ColumnType.typesById.add(this); this.id = ColumnType.typesById.size() - 1; } }
     public final String name;
     public final String psvItemRegex;
     
@@ -40,7 +42,7 @@ public abstract class ColumnType<V extends ColumnValue>
     {
         this.name = _name;
         this.psvItemRegex = _psvItemRegex;
-        ColumnType oldType = ColumnType.typesByName.put(this.name, this);
+        ColumnType oldType = ColumnType.typesByName.putIfAbsent(this.name, this);
         if (oldType != null)
         {
             String message = String.format("A type with the name \"%s\" already exists with id = %s. The new type has id = %s.", this.name, oldType.id, this.id);
@@ -55,6 +57,21 @@ public abstract class ColumnType<V extends ColumnValue>
         targetColumnValue.setStringValue(literal);
     }
     
+    public int hashLiteral(String literal)
+    {
+        return this.parseNew(literal).hashCode();
+    }
+    
+    public String normalizeLiteral(String literal)
+    {
+        return this.parseNew(literal).getStringValue();
+    }
+    
+    public int compareLiterals(String normalizedLiteral1, String normalizedLiteral2)
+    {
+        return normalizedLiteral1.compareTo(normalizedLiteral2);
+    }
+    
     @Override
     public String toString()
     {
@@ -77,6 +94,9 @@ public abstract class ColumnType<V extends ColumnValue>
         {
             return new ColumnValue.StringColumnValue(literal); 
         }
+        
+        @Override
+        public String normalizeLiteral(String literal) { return literal; }
     }
     
     private static class IntegerColumnType extends ColumnType<ColumnValue.IntegerColumnValue>
@@ -93,6 +113,11 @@ public abstract class ColumnType<V extends ColumnValue>
         {
             return new ColumnValue.IntegerColumnValue(literal); 
         }
+        
+        @Override
+        public String normalizeLiteral(String literal) { return Integer.toString(Integer.parseInt(literal)); }
+        @Override
+        public int compareLiterals(String normalizedLiteral1, String normalizedLiteral2) { return Integer.compare(Integer.parseInt(normalizedLiteral1), Integer.parseInt(normalizedLiteral2)); }
     }
     
     private static class BooleanColumnType extends ColumnType<ColumnValue.BooleanColumnValue>
@@ -126,5 +151,9 @@ public abstract class ColumnType<V extends ColumnValue>
         // instance methods
         @Override
         public ColumnValue parseNew(String literal) { return new ColumnValue.ReferenceColumnValue(this.table, literal); }
+        @Override
+        public int hashLiteral(String literal) { return this.table.hashPsvIdentifier(literal); }
+        @Override
+        public String normalizeLiteral(String literal) { return literal; }
     }
 }
\ No newline at end of file
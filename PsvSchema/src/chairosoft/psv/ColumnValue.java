@@ -41,7 +41,61 @@ public abstract class ColumnValue
         @Override public final String getStringValue() { return this.value; }
         @Override public final void setStringValue(String updatedValue) { this.value = updatedValue; }
         @Override public int hashCode() { return this.value.hashCode(); }
-        @Override public boolean equals(Object o) { return (o instanceof StringColumnValue) && ((StringColumnValue)o).value.equals(this.value); }
+        @Override public boolean equals(Object o) { return (o instanceof StringColumnValue || o instanceof EncodedStringColumnValue) && this.value.equals(((ColumnValue)o).getStringValue()); }
+    }
+    
+    /**
+     * A STRING value stored only as its code in a {@link StringDictionary};
+     * the text is looked up in the dictionary when needed. Values from the
+     * same dictionary compare by code; the hash code is the String's (cached)
+     * hash, so encoded and plain values that are equal stay interchangeable
+     * as map keys.
+     */
+    public static class EncodedStringColumnValue extends ColumnValue
+    {
+        // fields
+        public final StringDictionary dictionary;
+        public int code;
+        
+        // constructor
+        public EncodedStringColumnValue(StringDictionary _dictionary, int _code)
+        {
+            this.dictionary = _dictionary;
+            this.code = _code;
+        }
+        
+        // instance methods
+        @Override
+        public final String getStringValue()
+        {
+            return (this.code == StringDictionary.NO_CODE) ? null : this.dictionary.getValue(this.code);
+        }
+        
+        /** Changes the value, adding it to the dictionary even if the dictionary no longer takes new values. */
+        @Override
+        public void setStringValue(String updatedValue)
+        {
+            this.code = this.dictionary.add(updatedValue);
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return this.getStringValue().hashCode();
+        }
+        
+        @Override
+        public boolean equals(Object o)
+        {
+            if (o instanceof EncodedStringColumnValue)
+            {
+                EncodedStringColumnValue that = (EncodedStringColumnValue)o;
+                return (that.dictionary == this.dictionary)
+                    ? that.code == this.code
+                    : this.getStringValue().equals(that.getStringValue());
+            }
+            return (o instanceof StringColumnValue) && ((StringColumnValue)o).value.equals(this.getStringValue());
+        }
     }
     
     public static class IntegerColumnValue extends ColumnValue
@@ -90,11 +144,20 @@ public abstract class ColumnValue
         @Override public boolean equals(Object o) { return (o instanceof BooleanColumnValue) && ((BooleanColumnValue)o).value == this.value; }
     }
     
+    /**
+     * A reference to a row of {@code table}. An empty PSV identifier is a
+     * null reference: it is resolved, has no row, writes back as an empty
+     * literal and only equals other null references.
+     */
     public static class ReferenceColumnValue extends ColumnValue
     {
         // fields
         public final Table table;
         public Row value;
+        /** Written after {@code value}, so a thread that sees the reference resolved also sees its row. */
+        protected volatile String unresolvedPsvIdentifier = null;
+        public final boolean isResolved() { return this.unresolvedPsvIdentifier == null; }
+        public final boolean isNull() { return this.isResolved() && this.value == null; }
         
         // constructors
         public ReferenceColumnValue(Table _table, Row _value)
@@ -106,13 +169,42 @@ public abstract class ColumnValue
         public ReferenceColumnValue(Table _table, String _value)
         {
             this.table = _table;
-            this.setStringValue(_value);
+            ReferenceBatch batch = ReferenceBatch.current();
+            if (batch == null || _value == null || _value.isEmpty())
+            {
+                this.setStringValue(_value);
+            }
+            else
+            {
+                this.unresolvedPsvIdentifier = _value;
+                batch.defer(this);
+            }
+        }
+        
+        // static methods
+        /** Creates a reference that only records its PSV identifier until {@link #resolve()} is called. */
+        protected static ReferenceColumnValue unresolved(Table table, String psvIdentifier)
+        {
+            ReferenceColumnValue result = new ReferenceColumnValue(table, (Row)null);
+            if (psvIdentifier != null && !psvIdentifier.isEmpty()) { result.unresolvedPsvIdentifier = psvIdentifier; }
+            return result;
         }
         
         // instance methods
-        @Override public final String getStringValue() { return this.value.getPsvIdentifier(); }        
-        @Override public final void setStringValue(String updatedValue) { this.value = this.table.getRowFromPsvIdentifier(updatedValue); }        
-        @Override public int hashCode() { return this.value.hashCode(); }        
-        @Override public boolean equals(Object o) { return (o instanceof ReferenceColumnValue) && ((ReferenceColumnValue)o).value.equals(this.value); }
+        public void resolve() 
+        {
+            if (!this.isResolved()) { this.setStringValue(this.unresolvedPsvIdentifier); }
+        }
+        
+        @Override public final String getStringValue() { String psvIdentifier = this.unresolvedPsvIdentifier; return (psvIdentifier != null) ? psvIdentifier : (this.value == null) ? "" : this.value.getPsvIdentifier(); }
+        @Override public final void setStringValue(String updatedValue) { this.value = (updatedValue == null || updatedValue.isEmpty()) ? null : this.table.getRowFromPsvIdentifier(updatedValue); this.unresolvedPsvIdentifier = null; }
+        @Override public int hashCode() { String psvIdentifier = this.unresolvedPsvIdentifier; return (psvIdentifier != null) ? this.table.hashPsvIdentifier(psvIdentifier) : (this.value == null) ? 0 : this.value.hashCode(); }
+        @Override public boolean equals(Object o) { return (o instanceof ReferenceColumnValue) && this.equals((ReferenceColumnValue)o); }
+        
+        public boolean equals(ReferenceColumnValue that)
+        {
+            if (this.isResolved() && that.isResolved()) { return (this.value == null) ? that.value == null : this.value.equals(that.value); }
+            return that.getStringValue().equals(this.getStringValue());
+        }
     }
 }
\ No newline at end of file
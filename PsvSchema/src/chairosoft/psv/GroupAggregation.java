@@ -0,0 +1,537 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * GroupAggregation.java
+ * GroupAggregation class definition
+ */
+
+package chairosoft.psv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Count, sum, min and max of INTEGER columns per group, over the rows of a
+ * {@link Table} or the records of a {@link PsvRecordSet}. The input is
+ * split into fork-join partitions; each partition accumulates into its own
+ * primitive arrays (one slot per group) and the partial results are merged
+ * pairwise as the tasks join. Groups on an INTEGER column are found through
+ * an open-addressing int table and groups on a BOOLEAN column through two
+ * fixed slots, so neither boxes its keys; other group columns use a hash
+ * map keyed on the value.
+ * <pre>
+ * GroupAggregation.Result result = GroupAggregation.aggregate(orderTable, "customerId", "amount", "quantity");
+ * for (int g = 0; g &lt; result.getGroupCount(); ++g)
+ * {
+ *     int customerId = result.getIntKey(g);
+ *     long amountTotal = result.getSum(g, 0);
+ * }
+ * </pre>
+ */
+public class GroupAggregation
+{
+    // constants
+    public static final int MIN_PARTITION_SIZE = 1 << 12;
+    public static final int PARTITIONS_PER_THREAD = 4;
+    
+    // constructor
+    private GroupAggregation() { }
+    
+    // static methods
+    public static Result aggregate(Table table, String groupColumnName, String... valueColumnNames)
+    {
+        return GroupAggregation.aggregate(table, ForkJoinPool.commonPool(), groupColumnName, valueColumnNames);
+    }
+    
+    public static Result aggregate(Table table, ForkJoinPool pool, String groupColumnName, String... valueColumnNames)
+    {
+        int groupColumnIndex = table.requireColumnIndex(groupColumnName);
+        int[] valueColumnIndexes = new int[valueColumnNames.length];
+        for (int v = 0; v < valueColumnNames.length; ++v)
+        {
+            valueColumnIndexes[v] = table.requireColumnIndex(valueColumnNames[v]);
+            if (table.columns[valueColumnIndexes[v]].type != ColumnType.INTEGER)
+            {
+                String message = String.format("Aggregated column (%s) of table (%s) has type %s, but must be INTEGER.", valueColumnNames[v], table.name, table.columns[valueColumnIndexes[v]].type);
+                throw new IllegalArgumentException(message);
+            }
+        }
+        Row[] rows = table.rowsByKey.values().toArray(new Row[0]);
+        Source source = new RowSource(rows, groupColumnIndex, valueColumnIndexes);
+        return GroupAggregation.aggregate(source, table.columns[groupColumnIndex].type, pool, groupColumnName, valueColumnNames);
+    }
+    
+    /**
+     * Aggregates records by the literals of their group column. Records are
+     * grouped as ints or booleans if {@code groupType} is INTEGER or
+     * BOOLEAN, and by their literal otherwise; the value columns are parsed
+     * as ints.
+     */
+    public static Result aggregate(PsvRecordSet recordSet, ColumnType groupType, String groupColumnName, String... valueColumnNames)
+    {
+        String[] headerValues = recordSet.headerRecord.values;
+        int groupColumnIndex = GroupAggregation.requireHeaderIndex(headerValues, groupColumnName);
+        int[] valueColumnIndexes = new int[valueColumnNames.length];
+        for (int v = 0; v < valueColumnNames.length; ++v)
+        {
+            valueColumnIndexes[v] = GroupAggregation.requireHeaderIndex(headerValues, valueColumnNames[v]);
+        }
+        PsvRecord[] records = recordSet.records.toArray(new PsvRecord[0]);
+        Source source = new RecordSource(records, groupColumnIndex, valueColumnIndexes);
+        return GroupAggregation.aggregate(source, groupType, ForkJoinPool.commonPool(), groupColumnName, valueColumnNames);
+    }
+    
+    private static int requireHeaderIndex(String[] headerValues, String columnName)
+    {
+        int result = Arrays.asList(headerValues).indexOf(columnName);
+        if (result < 0)
+        {
+            String message = String.format("Header (%s) has no column named (%s).", String.join(String.valueOf(PsvRecord.VALUE_DELIMITER), headerValues), columnName);
+            throw new IllegalArgumentException(message);
+        }
+        return result;
+    }
+    
+    private static Result aggregate(Source source, ColumnType groupType, ForkJoinPool pool, String groupColumnName, String[] valueColumnNames)
+    {
+        KeyKind keyKind = (groupType == ColumnType.INTEGER) ? KeyKind.INT
+            : (groupType == ColumnType.BOOLEAN) ? KeyKind.BOOLEAN
+            : KeyKind.OBJECT;
+        int partitionSize = Math.max(MIN_PARTITION_SIZE, source.size() / Math.max(1, pool.getParallelism() * PARTITIONS_PER_THREAD));
+        Groups groups = pool.invoke(new PartitionTask(source, keyKind, valueColumnNames.length, partitionSize, 0, source.size()));
+        return new Result(groupColumnName, valueColumnNames, groups);
+    }
+    
+    
+    // static inner classes
+    private enum KeyKind { INT, BOOLEAN, OBJECT }
+    
+    private abstract static class Source
+    {
+        // fields
+        protected final int groupColumnIndex;
+        protected final int[] valueColumnIndexes;
+        
+        // constructor
+        protected Source(int _groupColumnIndex, int[] _valueColumnIndexes)
+        {
+            this.groupColumnIndex = _groupColumnIndex;
+            this.valueColumnIndexes = _valueColumnIndexes;
+        }
+        
+        // instance methods
+        public abstract int size();
+        public abstract int intKey(int i);
+        public abstract boolean booleanKey(int i);
+        public abstract Object objectKey(int i);
+        public abstract int intValue(int i, int v);
+    }
+    
+    private static class RowSource extends Source
+    {
+        // fields
+        private final Row[] rows;
+        
+        // constructor
+        public RowSource(Row[] _rows, int _groupColumnIndex, int[] _valueColumnIndexes)
+        {
+            super(_groupColumnIndex, _valueColumnIndexes);
+            this.rows = _rows;
+        }
+        
+        // instance methods
+        @Override public int size() { return this.rows.length; }
+        @Override public int intKey(int i) { return ((ColumnValue.IntegerColumnValue)this.rows[i].values[this.groupColumnIndex]).value; }
+        @Override public boolean booleanKey(int i) { return ((ColumnValue.BooleanColumnValue)this.rows[i].values[this.groupColumnIndex]).value; }
+        @Override public Object objectKey(int i) { return this.rows[i].values[this.groupColumnIndex]; }
+        @Override public int intValue(int i, int v) { return ((ColumnValue.IntegerColumnValue)this.rows[i].values[this.valueColumnIndexes[v]]).value; }
+    }
+    
+    private static class RecordSource extends Source
+    {
+        // fields
+        private final PsvRecord[] records;
+        
+        // constructor
+        public RecordSource(PsvRecord[] _records, int _groupColumnIndex, int[] _valueColumnIndexes)
+        {
+            super(_groupColumnIndex, _valueColumnIndexes);
+            this.records = _records;
+        }
+        
+        // instance methods
+        @Override public int size() { return this.records.length; }
+        @Override public int intKey(int i) { return Integer.parseInt(this.records[i].values[this.groupColumnIndex]); }
+        @Override public boolean booleanKey(int i) { return Boolean.parseBoolean(this.records[i].values[this.groupColumnIndex]); }
+        @Override public Object objectKey(int i) { return this.records[i].values[this.groupColumnIndex]; }
+        @Override public int intValue(int i, int v) { return Integer.parseInt(this.records[i].values[this.valueColumnIndexes[v]]); }
+    }
+    
+    private static class PartitionTask extends RecursiveTask<Groups>
+    {
+        // constants
+        private static final long serialVersionUID = 1L;
+        
+        // fields
+        private final Source source;
+        private final KeyKind keyKind;
+        private final int valueCount;
+        private final int partitionSize;
+        private final int start;
+        private final int end;
+        
+        // constructor
+        public PartitionTask(Source _source, KeyKind _keyKind, int _valueCount, int _partitionSize, int _start, int _end)
+        {
+            this.source = _source;
+            this.keyKind = _keyKind;
+            this.valueCount = _valueCount;
+            this.partitionSize = _partitionSize;
+            this.start = _start;
+            this.end = _end;
+        }
+        
+        // instance methods
+        @Override
+        protected Groups compute()
+        {
+            if (this.end - this.start <= this.partitionSize)
+            {
+                return this.accumulate();
+            }
+            int middle = (this.start + this.end) >>> 1;
+            PartitionTask left = new PartitionTask(this.source, this.keyKind, this.valueCount, this.partitionSize, this.start, middle);
+            PartitionTask right = new PartitionTask(this.source, this.keyKind, this.valueCount, this.partitionSize, middle, this.end);
+            right.fork();
+            Groups result = left.compute();
+            result.mergeFrom(right.join());
+            return result;
+        }
+        
+        private Groups accumulate()
+        {
+            Source source = this.source;
+            int valueCount = this.valueCount;
+            switch (this.keyKind)
+            {
+                case INT:
+                {
+                    IntGroups groups = new IntGroups(valueCount);
+                    for (int i = this.start; i < this.end; ++i)
+                    {
+                        int g = groups.groupFor(source.intKey(i));
+                        groups.count(g);
+                        for (int v = 0; v < valueCount; ++v) { groups.add(g, v, source.intValue(i, v)); }
+                    }
+                    return groups;
+                }
+                case BOOLEAN:
+                {
+                    BooleanGroups groups = new BooleanGroups(valueCount);
+                    for (int i = this.start; i < this.end; ++i)
+                    {
+                        int g = groups.groupFor(source.booleanKey(i));
+                        groups.count(g);
+                        for (int v = 0; v < valueCount; ++v) { groups.add(g, v, source.intValue(i, v)); }
+                    }
+                    return groups;
+                }
+                default:
+                {
+                    ObjectGroups groups = new ObjectGroups(valueCount);
+                    for (int i = this.start; i < this.end; ++i)
+                    {
+                        int g = groups.groupFor(source.objectKey(i));
+                        groups.count(g);
+                        for (int v = 0; v < valueCount; ++v) { groups.add(g, v, source.intValue(i, v)); }
+                    }
+                    return groups;
+                }
+            }
+        }
+    }
+    
+    /** Accumulators for all groups of one partition, one slot per group. */
+    private abstract static class Groups
+    {
+        // fields
+        protected final int valueCount;
+        protected int size = 0;
+        protected long[] counts = new long[16];
+        protected long[] sums;
+        protected int[] mins;
+        protected int[] maxes;
+        
+        // constructor
+        protected Groups(int _valueCount)
+        {
+            this.valueCount = _valueCount;
+            this.sums = new long[16 * this.valueCount];
+            this.mins = new int[16 * this.valueCount];
+            this.maxes = new int[16 * this.valueCount];
+        }
+        
+        // instance methods
+        public abstract Object getKey(int g);
+        protected abstract int groupForKeyOf(Groups other, int otherGroup);
+        
+        protected int newGroup()
+        {
+            int g = this.size++;
+            if (g == this.counts.length)
+            {
+                this.counts = Arrays.copyOf(this.counts, g * 2);
+                this.sums = Arrays.copyOf(this.sums, g * 2 * this.valueCount);
+                this.mins = Arrays.copyOf(this.mins, g * 2 * this.valueCount);
+                this.maxes = Arrays.copyOf(this.maxes, g * 2 * this.valueCount);
+            }
+            Arrays.fill(this.mins, g * this.valueCount, (g + 1) * this.valueCount, Integer.MAX_VALUE);
+            Arrays.fill(this.maxes, g * this.valueCount, (g + 1) * this.valueCount, Integer.MIN_VALUE);
+            return g;
+        }
+        
+        public final void count(int g)
+        {
+            ++this.counts[g];
+        }
+        
+        public final void add(int g, int v, int value)
+        {
+            int slot = g * this.valueCount + v;
+            this.sums[slot] += value;
+            if (value < this.mins[slot]) { this.mins[slot] = value; }
+            if (value > this.maxes[slot]) { this.maxes[slot] = value; }
+        }
+        
+        public void mergeFrom(Groups other)
+        {
+            for (int og = 0; og < other.size; ++og)
+            {
+                int g = this.groupForKeyOf(other, og);
+                this.counts[g] += other.counts[og];
+                for (int v = 0; v < this.valueCount; ++v)
+                {
+                    int slot = g * this.valueCount + v;
+                    int otherSlot = og * this.valueCount + v;
+                    this.sums[slot] += other.sums[otherSlot];
+                    this.mins[slot] = Math.min(this.mins[slot], other.mins[otherSlot]);
+                    this.maxes[slot] = Math.max(this.maxes[slot], other.maxes[otherSlot]);
+                }
+            }
+        }
+    }
+    
+    private static class IntGroups extends Groups
+    {
+        // fields
+        private int[] keys = new int[16];
+        private int[] tableKeys = new int[32];
+        private int[] tableGroups = new int[32];
+        private int mask = 31;
+        
+        // constructor
+        public IntGroups(int _valueCount)
+        {
+            super(_valueCount);
+            Arrays.fill(this.tableGroups, -1);
+        }
+        
+        // instance methods
+        @Override public Object getKey(int g) { return this.keys[g]; }
+        public int getIntKey(int g) { return this.keys[g]; }
+        @Override protected int groupForKeyOf(Groups other, int otherGroup) { return this.groupFor(((IntGroups)other).keys[otherGroup]); }
+        
+        public int findGroup(int key)
+        {
+            for (int slot = KeyIndex.spread(key) & this.mask; this.tableGroups[slot] >= 0; slot = (slot + 1) & this.mask)
+            {
+                if (this.tableKeys[slot] == key) { return this.tableGroups[slot]; }
+            }
+            return -1;
+        }
+        
+        public int groupFor(int key)
+        {
+            int slot = KeyIndex.spread(key) & this.mask;
+            for (; this.tableGroups[slot] >= 0; slot = (slot + 1) & this.mask)
+            {
+                if (this.tableKeys[slot] == key) { return this.tableGroups[slot]; }
+            }
+            int g = this.newGroup();
+            if (g == this.keys.length) { this.keys = Arrays.copyOf(this.keys, g * 2); }
+            this.keys[g] = key;
+            this.tableKeys[slot] = key;
+            this.tableGroups[slot] = g;
+            if (this.size * 2 > this.tableGroups.length) { this.rehash(); }
+            return g;
+        }
+        
+        private void rehash()
+        {
+            int capacity = this.tableGroups.length * 2;
+            this.tableKeys = new int[capacity];
+            this.tableGroups = new int[capacity];
+            Arrays.fill(this.tableGroups, -1);
+            this.mask = capacity - 1;
+            for (int g = 0; g < this.size; ++g)
+            {
+                int slot = KeyIndex.spread(this.keys[g]) & this.mask;
+                while (this.tableGroups[slot] >= 0) { slot = (slot + 1) & this.mask; }
+                this.tableKeys[slot] = this.keys[g];
+                this.tableGroups[slot] = g;
+            }
+        }
+    }
+    
+    private static class BooleanGroups extends Groups
+    {
+        // fields
+        private final int[] groupsByKey = { -1, -1 };
+        private final boolean[] keys = new boolean[2];
+        
+        // constructor
+        public BooleanGroups(int _valueCount) { super(_valueCount); }
+        
+        // instance methods
+        @Override public Object getKey(int g) { return this.keys[g]; }
+        @Override protected int groupForKeyOf(Groups other, int otherGroup) { return this.groupFor(((BooleanGroups)other).keys[otherGroup]); }
+        
+        public int findGroup(boolean key)
+        {
+            return this.groupsByKey[key ? 1 : 0];
+        }
+        
+        public int groupFor(boolean key)
+        {
+            int k = key ? 1 : 0;
+            int g = this.groupsByKey[k];
+            if (g < 0)
+            {
+                g = this.newGroup();
+                this.groupsByKey[k] = g;
+                this.keys[g] = key;
+            }
+            return g;
+        }
+    }
+    
+    private static class ObjectGroups extends Groups
+    {
+        // fields
+        private final HashMap<Object, Integer> groupsByKey = new HashMap<>();
+        private final ArrayList<Object> keys = new ArrayList<>();
+        
+        // constructor
+        public ObjectGroups(int _valueCount) { super(_valueCount); }
+        
+        // instance methods
+        @Override public Object getKey(int g) { return this.keys.get(g); }
+        @Override protected int groupForKeyOf(Groups other, int otherGroup) { return this.groupFor(((ObjectGroups)other).keys.get(otherGroup)); }
+        
+        public int findGroup(Object key)
+        {
+            Integer g = this.groupsByKey.get(key);
+            return (g == null) ? -1 : g;
+        }
+        
+        public int groupFor(Object key)
+        {
+            Integer g = this.groupsByKey.get(key);
+            if (g == null)
+            {
+                g = this.newGroup();
+                this.groupsByKey.put(key, g);
+                this.keys.add(key);
+            }
+            return g;
+        }
+    }
+    
+    /**
+     * The aggregates of every group, indexed by group number. Value columns
+     * are indexed in the order they were given.
+     */
+    public static class Result
+    {
+        // fields
+        public final String groupColumnName;
+        private final String[] valueColumnNames;
+        private final Groups groups;
+        
+        // constructor
+        private Result(String _groupColumnName, String[] _valueColumnNames, Groups _groups)
+        {
+            this.groupColumnName = _groupColumnName;
+            this.valueColumnNames = _valueColumnNames.clone();
+            this.groups = _groups;
+        }
+        
+        // instance methods
+        public int getGroupCount() { return this.groups.size; }
+        public Object getKey(int g) { return this.groups.getKey(g); }
+        public String getKeyLiteral(int g) { Object key = this.getKey(g); return (key instanceof ColumnValue) ? ((ColumnValue)key).getStringValue() : String.valueOf(key); }
+        public long getCount(int g) { return this.groups.counts[g]; }
+        public long getSum(int g, int v) { return this.groups.sums[g * this.groups.valueCount + v]; }
+        public int getMin(int g, int v) { return this.groups.mins[g * this.groups.valueCount + v]; }
+        public int getMax(int g, int v) { return this.groups.maxes[g * this.groups.valueCount + v]; }
+        
+        public int getIntKey(int g)
+        {
+            if (!(this.groups instanceof IntGroups))
+            {
+                String message = String.format("Group column (%s) is not an INTEGER column.", this.groupColumnName);
+                throw new IllegalStateException(message);
+            }
+            return ((IntGroups)this.groups).getIntKey(g);
+        }
+        
+        /** Returns the group number of the given key, or -1 if no row had it. */
+        public int findGroup(int key)
+        {
+            return (this.groups instanceof IntGroups) ? ((IntGroups)this.groups).findGroup(key) : -1;
+        }
+        
+        public int findGroup(boolean key)
+        {
+            return (this.groups instanceof BooleanGroups) ? ((BooleanGroups)this.groups).findGroup(key) : -1;
+        }
+        
+        public int findGroup(Object key)
+        {
+            return (this.groups instanceof ObjectGroups) ? ((ObjectGroups)this.groups).findGroup(key) : -1;
+        }
+        
+        public PsvRecordSet toPsvRecordSet()
+        {
+            String[] headerValues = new String[2 + 3 * this.valueColumnNames.length];
+            headerValues[0] = this.groupColumnName;
+            headerValues[1] = "count";
+            for (int v = 0; v < this.valueColumnNames.length; ++v)
+            {
+                headerValues[2 + 3 * v] = this.valueColumnNames[v] + ".sum";
+                headerValues[3 + 3 * v] = this.valueColumnNames[v] + ".min";
+                headerValues[4 + 3 * v] = this.valueColumnNames[v] + ".max";
+            }
+            ArrayList<PsvRecord> records = new ArrayList<>(this.getGroupCount());
+            for (int g = 0; g < this.getGroupCount(); ++g)
+            {
+                PsvRecord record = new PsvRecord(headerValues.length);
+                record.values[0] = this.getKeyLiteral(g);
+                record.values[1] = Long.toString(this.getCount(g));
+                for (int v = 0; v < this.valueColumnNames.length; ++v)
+                {
+                    record.values[2 + 3 * v] = Long.toString(this.getSum(g, v));
+                    record.values[3 + 3 * v] = Integer.toString(this.getMin(g, v));
+                    record.values[4 + 3 * v] = Integer.toString(this.getMax(g, v));
+                }
+                records.add(record);
+            }
+            return new PsvRecordSet(new PsvRecord(headerValues), records);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,343 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * HashJoin.java
+ * HashJoin class definition
+ */
+
+package chairosoft.psv;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Inner equi-join of two {@link Table}s, either on a reference column of
+ * the left table (matching the rows it points to in the right table) or on
+ * pairs of matching columns. The rows of the smaller table are put in a
+ * hash table keyed on the join columns, and the rows of the larger table
+ * probe it; the probe can run in parallel. Joined rows always have the
+ * left table's columns first.
+ * <p>
+ * {@link #joinRecords} and {@link #joinFiles} do the same for plain PSV
+ * records, matching column literals exactly.
+ */
+public class HashJoin
+{
+    // fields
+    public final Table leftTable;
+    public final Table rightTable;
+    public final PsvRecord header;
+    public final boolean includesRightSubtables;
+    private final Function<Row, Object> leftKeyFunction;
+    private final Function<Row, Object> rightKeyFunction;
+    
+    // constructors
+    protected HashJoin(Table _leftTable, Function<Row, Object> _leftKeyFunction, Table _rightTable, Function<Row, Object> _rightKeyFunction, boolean _includesRightSubtables)
+    {
+        this.leftTable = _leftTable;
+        this.rightTable = _rightTable;
+        this.leftKeyFunction = _leftKeyFunction;
+        this.rightKeyFunction = _rightKeyFunction;
+        this.includesRightSubtables = _includesRightSubtables;
+        String[] headerValues = new String[this.leftTable.columns.length + this.rightTable.columns.length];
+        int i = 0;
+        for (Column column : this.leftTable.columns) { headerValues[i++] = this.leftTable.name + "." + column.name; }
+        for (Column column : this.rightTable.columns) { headerValues[i++] = this.rightTable.name + "." + column.name; }
+        this.header = new PsvRecord(headerValues);
+    }
+    
+    public HashJoin(Table _leftTable, String[] leftColumnNames, Table _rightTable, String[] rightColumnNames)
+    {
+        this(_leftTable, HashJoin.columnKeyFunction(_leftTable, leftColumnNames), _rightTable, HashJoin.columnKeyFunction(_rightTable, rightColumnNames), false);
+        if (leftColumnNames.length != rightColumnNames.length || leftColumnNames.length == 0)
+        {
+            String message = String.format("Join of table (%s) on %s columns and table (%s) on %s columns needs the same, nonzero number of columns on each side.", this.leftTable.name, leftColumnNames.length, this.rightTable.name, rightColumnNames.length);
+            throw new IllegalArgumentException(message);
+        }
+    }
+    
+    // static methods
+    /**
+     * Joins each row of {@code leftTable} to the row that its
+     * {@code referenceColumnName} column points to, which may be a row of
+     * the referenced table or of any of its subtables. Rows are matched by
+     * identity, and subtable rows contribute only the referenced table's
+     * columns.
+     */
+    public static HashJoin onReference(Table leftTable, String referenceColumnName)
+    {
+        int columnIndex = leftTable.requireColumnIndex(referenceColumnName);
+        ColumnType type = leftTable.columns[columnIndex].type;
+        if (!(type instanceof ColumnType.ReferenceColumnType))
+        {
+            String message = String.format("Column (%s) of table (%s) is not a reference column.", referenceColumnName, leftTable.name);
+            throw new IllegalArgumentException(message);
+        }
+        Function<Row, Object> leftKeyFunction = row ->
+        {
+            ColumnValue.ReferenceColumnValue reference = (ColumnValue.ReferenceColumnValue)row.values[columnIndex];
+            return (reference.isResolved() && reference.value != null) ? new RowIdentity(reference.value) : null;
+        };
+        return new HashJoin(leftTable, leftKeyFunction, ((ColumnType.ReferenceColumnType)type).table, RowIdentity::new, true);
+    }
+    
+    private static void addRowsOf(Table table, boolean includesSubtables, List<Row> result)
+    {
+        result.addAll(table.rowsByKey.values());
+        if (!includesSubtables) { return; }
+        for (Table child : table.children) { HashJoin.addRowsOf(child, true, result); }
+    }
+    
+    private static Function<Row, Object> columnKeyFunction(Table table, String[] columnNames)
+    {
+        int[] columnIndexes = new int[columnNames.length];
+        for (int i = 0; i < columnNames.length; ++i)
+        {
+            columnIndexes[i] = table.requireColumnIndex(columnNames[i]);
+        }
+        if (columnIndexes.length == 1)
+        {
+            int columnIndex = columnIndexes[0];
+            return row -> row.values[columnIndex];
+        }
+        return row ->
+        {
+            Object[] values = new Object[columnIndexes.length];
+            for (int i = 0; i < values.length; ++i) { values[i] = row.values[columnIndexes[i]]; }
+            return new JoinKey(values);
+        };
+    }
+    
+    private static <T> HashMap<Object, List<T>> build(Collection<T> items, Function<T, Object> keyFunction)
+    {
+        HashMap<Object, List<T>> result = new HashMap<>(Math.max(16, items.size() * 4 / 3 + 1));
+        for (T item : items)
+        {
+            Object key = keyFunction.apply(item);
+            if (key == null) { continue; }
+            result.computeIfAbsent(key, k -> new ArrayList<>(1)).add(item);
+        }
+        return result;
+    }
+    
+    private static <T> List<T> probe(HashMap<Object, List<T>> built, Object key)
+    {
+        List<T> matches = (key == null) ? null : built.get(key);
+        return (matches == null) ? Collections.<T>emptyList() : matches;
+    }
+    
+    /**
+     * Joins two record sets on the given columns, building on the smaller
+     * one. Each output record is the left record's values followed by the
+     * right record's values.
+     */
+    public static Stream<PsvRecord> joinRecords(PsvRecordSet left, String[] leftColumnNames, PsvRecordSet right, String[] rightColumnNames)
+    {
+        Function<PsvRecord, Object> leftKeyFunction = HashJoin.literalKeyFunction(left.headerRecord, leftColumnNames);
+        Function<PsvRecord, Object> rightKeyFunction = HashJoin.literalKeyFunction(right.headerRecord, rightColumnNames);
+        if (left.records.size() <= right.records.size())
+        {
+            HashMap<Object, List<PsvRecord>> built = HashJoin.build(left.records, leftKeyFunction);
+            return right.records.stream().flatMap(r -> HashJoin.probe(built, rightKeyFunction.apply(r)).stream().map(l -> HashJoin.concat(l, r)));
+        }
+        else
+        {
+            HashMap<Object, List<PsvRecord>> built = HashJoin.build(right.records, rightKeyFunction);
+            return left.records.stream().flatMap(l -> HashJoin.probe(built, leftKeyFunction.apply(l)).stream().map(r -> HashJoin.concat(l, r)));
+        }
+    }
+    
+    /**
+     * Joins two PSV files on the given columns. The smaller file is read
+     * into memory and the larger one is streamed, so close the returned
+     * stream to close the larger file.
+     */
+    public static Stream<PsvRecord> joinFiles(File leftFile, String[] leftColumnNames, File rightFile, String[] rightColumnNames)
+    {
+        boolean isLeftSmaller = leftFile.length() <= rightFile.length();
+        PsvRecordSet built = PsvRecordSet.readFrom(isLeftSmaller ? leftFile : rightFile);
+        Function<PsvRecord, Object> builtKeyFunction = HashJoin.literalKeyFunction(built.headerRecord, isLeftSmaller ? leftColumnNames : rightColumnNames);
+        HashMap<Object, List<PsvRecord>> builtRecords = HashJoin.build(built.records, builtKeyFunction);
+        PsvRecordReader reader = PsvRecordSet.openReader(isLeftSmaller ? rightFile : leftFile, 0);
+        Function<PsvRecord, Object> probeKeyFunction;
+        try
+        {
+            probeKeyFunction = HashJoin.literalKeyFunction(reader.headerRecord, isLeftSmaller ? rightColumnNames : leftColumnNames);
+        }
+        catch (RuntimeException ex)
+        {
+            reader.close();
+            throw ex;
+        }
+        return reader.stream().flatMap(p -> HashJoin.probe(builtRecords, probeKeyFunction.apply(p)).stream().map(b -> isLeftSmaller ? HashJoin.concat(b, p) : HashJoin.concat(p, b)));
+    }
+    
+    private static Function<PsvRecord, Object> literalKeyFunction(PsvRecord header, String[] columnNames)
+    {
+        int[] columnIndexes = new int[columnNames.length];
+        for (int i = 0; i < columnNames.length; ++i)
+        {
+            columnIndexes[i] = Arrays.asList(header.values).indexOf(columnNames[i]);
+            if (columnIndexes[i] < 0)
+            {
+                String message = String.format("Header (%s) has no column named (%s).", String.join(String.valueOf(PsvRecord.VALUE_DELIMITER), header.values), columnNames[i]);
+                throw new IllegalArgumentException(message);
+            }
+        }
+        if (columnIndexes.length == 1)
+        {
+            int columnIndex = columnIndexes[0];
+            return record -> record.values[columnIndex];
+        }
+        return record ->
+        {
+            Object[] values = new Object[columnIndexes.length];
+            for (int i = 0; i < values.length; ++i) { values[i] = record.values[columnIndexes[i]]; }
+            return new JoinKey(values);
+        };
+    }
+    
+    private static PsvRecord concat(PsvRecord left, PsvRecord right)
+    {
+        String[] values = Arrays.copyOf(left.values, left.values.length + right.values.length);
+        System.arraycopy(right.values, 0, values, left.values.length, right.values.length);
+        return new PsvRecord(values);
+    }
+    
+    // instance methods
+    public Stream<JoinedRow> stream()
+    {
+        return this.stream(false);
+    }
+    
+    public Stream<JoinedRow> parallelStream()
+    {
+        return this.stream(true);
+    }
+    
+    public Stream<JoinedRow> stream(boolean isParallel)
+    {
+        Collection<Row> leftRows = this.leftTable.rowsByKey.values();
+        Collection<Row> rightRows = this.rightTable.rowsByKey.values();
+        if (this.includesRightSubtables && !this.rightTable.children.isEmpty())
+        {
+            ArrayList<Row> allRightRows = new ArrayList<>();
+            HashJoin.addRowsOf(this.rightTable, true, allRightRows);
+            rightRows = allRightRows;
+        }
+        int rightColumnCount = this.rightTable.columns.length;
+        if (leftRows.size() <= rightRows.size())
+        {
+            HashMap<Object, List<Row>> built = HashJoin.build(leftRows, this.leftKeyFunction);
+            Stream<Row> probeRows = isParallel ? new ArrayList<>(rightRows).parallelStream() : rightRows.stream();
+            return probeRows.flatMap(r -> HashJoin.probe(built, this.rightKeyFunction.apply(r)).stream().map(l -> new JoinedRow(l, r, rightColumnCount)));
+        }
+        else
+        {
+            HashMap<Object, List<Row>> built = HashJoin.build(rightRows, this.rightKeyFunction);
+            Stream<Row> probeRows = isParallel ? new ArrayList<>(leftRows).parallelStream() : leftRows.stream();
+            return probeRows.flatMap(l -> HashJoin.probe(built, this.leftKeyFunction.apply(l)).stream().map(r -> new JoinedRow(l, r, rightColumnCount)));
+        }
+    }
+    
+    public Stream<PsvRecord> records(boolean isParallel)
+    {
+        return this.stream(isParallel).map(JoinedRow::toPsvRecord);
+    }
+    
+    
+    // static inner classes
+    private static class JoinKey
+    {
+        // fields
+        private final Object[] values;
+        private final int hash;
+        
+        // constructor
+        public JoinKey(Object[] _values)
+        {
+            this.values = _values;
+            this.hash = Arrays.hashCode(this.values);
+        }
+        
+        // instance methods
+        @Override public int hashCode() { return this.hash; }
+        @Override public boolean equals(Object o) { return (o instanceof JoinKey) && ((JoinKey)o).hash == this.hash && Arrays.equals(((JoinKey)o).values, this.values); }
+    }
+    
+    /** Matches rows by identity, since keys of rows in sibling subtables can be equal. */
+    private static class RowIdentity
+    {
+        // fields
+        private final Row row;
+        
+        // constructor
+        public RowIdentity(Row _row)
+        {
+            this.row = _row;
+        }
+        
+        // instance methods
+        @Override public int hashCode() { return System.identityHashCode(this.row); }
+        @Override public boolean equals(Object o) { return (o instanceof RowIdentity) && ((RowIdentity)o).row == this.row; }
+    }
+    
+    public static class JoinedRow
+    {
+        // fields
+        public final Row left;
+        public final Row right;
+        public final int rightColumnCount;
+        
+        // constructors
+        public JoinedRow(Row _left, Row _right)
+        {
+            this(_left, _right, _right.values.length);
+        }
+        
+        /** A joined row that only shows the first {@code _rightColumnCount} columns of a subtable row on the right. */
+        public JoinedRow(Row _left, Row _right, int _rightColumnCount)
+        {
+            this.left = _left;
+            this.right = _right;
+            this.rightColumnCount = _rightColumnCount;
+        }
+        
+        // instance methods
+        public int size()
+        {
+            return this.left.values.length + this.rightColumnCount;
+        }
+        
+        public ColumnValue getValue(int i)
+        {
+            int leftSize = this.left.values.length;
+            return (i < leftSize) ? this.left.values[i] : this.right.values[i - leftSize];
+        }
+        
+        public PsvRecord toPsvRecord()
+        {
+            PsvRecord result = new PsvRecord(this.size());
+            for (int i = 0; i < result.values.length; ++i)
+            {
+                result.values[i] = this.getValue(i).getStringValue();
+            }
+            return result;
+        }
+        
+        @Override
+        public String toString()
+        {
+            return String.format("JoinedRow(%s, %s)", this.left.getPsvIdentifier(), this.right.getPsvIdentifier());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,442 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * KeyIndex.java
+ * KeyIndex class definition
+ */
+
+package chairosoft.psv;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Primary key index of a {@link Table}, used as its {@code rowsByKey} map.
+ * Implementations notify the table of every insert, replacement and
+ * removal so it can keep its secondary indexes up to date.
+ * <p>
+ * Non-concurrent tables keep their rows in an {@link OpenAddressingKeyIndex}
+ * (linear probing, backward-shift deletion) next to their key hashes, so a
+ * probe only calls {@code equals} on keys whose hashes already match. Tables
+ * whose key is a single INTEGER column get an {@link IntKeyIndex}, which can
+ * be probed with a plain {@code int}; all other tables get a
+ * {@link CompositeKeyIndex}, which uses the hash cached in each
+ * {@link Row.Key}. Concurrent tables get a {@link ConcurrentKeyIndex}.
+ */
+public abstract class KeyIndex extends AbstractMap<Row.Key, Row>
+{
+    // fields
+    public final Table table;
+    
+    // constructor
+    protected KeyIndex(Table _table)
+    {
+        this.table = _table;
+    }
+    
+    // static methods
+    public static KeyIndex create(Table table)
+    {
+        if (table.isConcurrent) { return new ConcurrentKeyIndex(table); }
+        boolean hasSingleIntegerKey = table.keyColumns.length == 1 && table.keyColumns[0].type == ColumnType.INTEGER;
+        return hasSingleIntegerKey ? new IntKeyIndex(table) : new CompositeKeyIndex(table);
+    }
+    
+    protected static int spread(int hash)
+    {
+        int result = hash * 0x9E3779B9;
+        return result ^ (result >>> 16);
+    }
+    
+    // instance methods
+    @Override public abstract int size();
+    @Override public abstract Row get(Object o);
+    @Override public abstract Row put(Row.Key key, Row row);
+    @Override public abstract Row remove(Object o);
+    @Override public abstract void clear();
+    
+    @Override
+    public boolean containsKey(Object o)
+    {
+        return this.get(o) != null;
+    }
+    
+    
+    // static inner classes
+    /**
+     * Open-addressing key index shared by {@link IntKeyIndex} and
+     * {@link CompositeKeyIndex}. Not safe for concurrent writes.
+     */
+    public abstract static class OpenAddressingKeyIndex extends KeyIndex
+    {
+        // constants
+        public static final int INITIAL_CAPACITY = 16;
+        
+        // fields
+        protected Row.Key[] keys;
+        protected Row[] rows;
+        protected int[] hashes;
+        protected int mask;
+        protected int size = 0;
+        protected int modificationCount = 0;
+        
+        // constructor
+        protected OpenAddressingKeyIndex(Table _table)
+        {
+            super(_table);
+            this.allocate(INITIAL_CAPACITY);
+        }
+        
+        // instance methods
+        protected abstract int hashOf(Row.Key key);
+        protected abstract boolean matches(int slot, Row.Key key);
+        protected void storeExtra(int slot, Row.Key key) { }
+        protected void moveExtra(int fromSlot, int toSlot) { }
+        protected void allocateExtra(int capacity) { }
+        
+        protected void allocate(int capacity)
+        {
+            this.keys = new Row.Key[capacity];
+            this.rows = new Row[capacity];
+            this.hashes = new int[capacity];
+            this.mask = capacity - 1;
+            this.allocateExtra(capacity);
+        }
+        
+        protected int findSlot(Row.Key key, int hash)
+        {
+            int slot = hash & this.mask;
+            while (this.rows[slot] != null)
+            {
+                if (this.hashes[slot] == hash && this.matches(slot, key)) { return slot; }
+                slot = (slot + 1) & this.mask;
+            }
+            return -(slot + 1);
+        }
+        
+        @Override
+        public int size()
+        {
+            return this.size;
+        }
+        
+        @Override
+        public Row get(Object o)
+        {
+            if (!(o instanceof Row.Key)) { return null; }
+            Row.Key key = (Row.Key)o;
+            int slot = this.findSlot(key, this.hashOf(key));
+            return (slot < 0) ? null : this.rows[slot];
+        }
+        
+        @Override
+        public Row put(Row.Key key, Row row)
+        {
+            if (key == null || row == null)
+            {
+                throw new NullPointerException("KeyIndex does not allow null keys or rows.");
+            }
+            int hash = this.hashOf(key);
+            int slot = this.findSlot(key, hash);
+            ++this.modificationCount;
+            if (slot >= 0)
+            {
+                Row oldRow = this.rows[slot];
+                this.keys[slot] = key;
+                this.rows[slot] = row;
+                this.storeExtra(slot, key);
+                this.table.onRowReplaced(oldRow, row);
+                return oldRow;
+            }
+            slot = -(slot + 1);
+            this.keys[slot] = key;
+            this.rows[slot] = row;
+            this.hashes[slot] = hash;
+            this.storeExtra(slot, key);
+            if (++this.size * 2 > this.rows.length)
+            {
+                this.resize(this.rows.length * 2);
+            }
+            this.table.onRowReplaced(null, row);
+            return null;
+        }
+        
+        @Override
+        public Row remove(Object o)
+        {
+            if (!(o instanceof Row.Key)) { return null; }
+            Row.Key key = (Row.Key)o;
+            int slot = this.findSlot(key, this.hashOf(key));
+            if (slot < 0) { return null; }
+            Row oldRow = this.rows[slot];
+            this.removeSlot(slot);
+            this.table.onRowReplaced(oldRow, null);
+            return oldRow;
+        }
+        
+        protected void removeSlot(int slot)
+        {
+            int hole = slot;
+            for (int next = (hole + 1) & this.mask; this.rows[next] != null; next = (next + 1) & this.mask)
+            {
+                int idealSlot = this.hashes[next] & this.mask;
+                if (((next - idealSlot) & this.mask) >= ((next - hole) & this.mask))
+                {
+                    this.keys[hole] = this.keys[next];
+                    this.rows[hole] = this.rows[next];
+                    this.hashes[hole] = this.hashes[next];
+                    this.moveExtra(next, hole);
+                    hole = next;
+                }
+            }
+            this.keys[hole] = null;
+            this.rows[hole] = null;
+            --this.size;
+            ++this.modificationCount;
+        }
+        
+        @Override
+        public void clear()
+        {
+            this.allocate(INITIAL_CAPACITY);
+            this.size = 0;
+            ++this.modificationCount;
+            this.table.onRowsCleared();
+        }
+        
+        protected void resize(int capacity)
+        {
+            Row.Key[] oldKeys = this.keys;
+            Row[] oldRows = this.rows;
+            int[] oldHashes = this.hashes;
+            this.allocate(capacity);
+            for (int i = 0; i < oldRows.length; ++i)
+            {
+                if (oldRows[i] == null) { continue; }
+                int slot = oldHashes[i] & this.mask;
+                while (this.rows[slot] != null) { slot = (slot + 1) & this.mask; }
+                this.keys[slot] = oldKeys[i];
+                this.rows[slot] = oldRows[i];
+                this.hashes[slot] = oldHashes[i];
+                this.storeExtra(slot, oldKeys[i]);
+            }
+        }
+        
+        @Override
+        public Set<Map.Entry<Row.Key, Row>> entrySet()
+        {
+            return new AbstractSet<Map.Entry<Row.Key, Row>>()
+            {
+                @Override public int size() { return OpenAddressingKeyIndex.this.size; }
+                @Override public void clear() { OpenAddressingKeyIndex.this.clear(); }
+                @Override public Iterator<Map.Entry<Row.Key, Row>> iterator() { return new EntryIterator(); }
+            };
+        }
+        
+        
+        // inner classes
+        private class EntryIterator implements Iterator<Map.Entry<Row.Key, Row>>
+        {
+            // fields
+            private final int expectedModificationCount = OpenAddressingKeyIndex.this.modificationCount;
+            private int nextSlot = 0;
+            
+            // instance methods
+            @Override
+            public boolean hasNext()
+            {
+                Row[] rows = OpenAddressingKeyIndex.this.rows;
+                while (this.nextSlot < rows.length && rows[this.nextSlot] == null) { ++this.nextSlot; }
+                return this.nextSlot < rows.length;
+            }
+            
+            @Override
+            public Map.Entry<Row.Key, Row> next()
+            {
+                if (OpenAddressingKeyIndex.this.modificationCount != this.expectedModificationCount) { throw new ConcurrentModificationException(); }
+                if (!this.hasNext()) { throw new NoSuchElementException(); }
+                int slot = this.nextSlot++;
+                return new AbstractMap.SimpleImmutableEntry<>(OpenAddressingKeyIndex.this.keys[slot], OpenAddressingKeyIndex.this.rows[slot]);
+            }
+            
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        }
+    }
+    
+    public static class IntKeyIndex extends OpenAddressingKeyIndex
+    {
+        // fields
+        protected int[] intKeys;
+        
+        // constructor
+        public IntKeyIndex(Table _table) { super(_table); }
+        
+        // static methods
+        private static int intValueOf(Row.Key key) { return ((ColumnValue.IntegerColumnValue)key.values[0]).value; }
+        
+        // instance methods
+        @Override protected int hashOf(Row.Key key) { return KeyIndex.spread(IntKeyIndex.intValueOf(key)); }
+        @Override protected boolean matches(int slot, Row.Key key) { return this.intKeys[slot] == IntKeyIndex.intValueOf(key); }
+        @Override protected void storeExtra(int slot, Row.Key key) { this.intKeys[slot] = IntKeyIndex.intValueOf(key); }
+        @Override protected void moveExtra(int fromSlot, int toSlot) { this.intKeys[toSlot] = this.intKeys[fromSlot]; }
+        @Override protected void allocateExtra(int capacity) { this.intKeys = new int[capacity]; }
+        
+        public Row get(int keyValue)
+        {
+            int hash = KeyIndex.spread(keyValue);
+            int slot = hash & this.mask;
+            for (Row row = this.rows[slot]; row != null; row = this.rows[slot])
+            {
+                if (this.intKeys[slot] == keyValue) { return row; }
+                slot = (slot + 1) & this.mask;
+            }
+            return null;
+        }
+    }
+    
+    public static class CompositeKeyIndex extends OpenAddressingKeyIndex
+    {
+        // constructor
+        public CompositeKeyIndex(Table _table) { super(_table); }
+        
+        // instance methods
+        @Override protected int hashOf(Row.Key key) { return KeyIndex.spread(key.hashCode()); }
+        @Override protected boolean matches(int slot, Row.Key key) { return this.keys[slot].equals(key); }
+        
+        public Row get(ColumnValue[] keyValues)
+        {
+            int hash = KeyIndex.spread(Row.Key.hashOf(keyValues));
+            int slot = hash & this.mask;
+            for (Row row = this.rows[slot]; row != null; row = this.rows[slot])
+            {
+                if (this.hashes[slot] == hash && this.keys[slot].valuesEqual(keyValues)) { return row; }
+                slot = (slot + 1) & this.mask;
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * Key index of a concurrent {@link Table}, backed by a
+     * {@link ConcurrentHashMap}. Lookups do not lock. Each insert or removal
+     * updates the table's secondary indexes inside the map's per-key
+     * critical section, so concurrent writes to the same key reach the
+     * secondary indexes in the same order as the map. Writes also hold the
+     * read side of the table's {@code secondaryIndexLock} until the map
+     * has published them, so a secondary index being added never misses
+     * one.
+     */
+    public static class ConcurrentKeyIndex extends KeyIndex
+    {
+        // fields
+        private final ConcurrentHashMap<Row.Key, Row> rowsByKey = new ConcurrentHashMap<>();
+        
+        // constructor
+        public ConcurrentKeyIndex(Table _table) { super(_table); }
+        
+        // instance methods
+        @Override
+        public int size()
+        {
+            return this.rowsByKey.size();
+        }
+        
+        @Override
+        public Row get(Object o)
+        {
+            return (o instanceof Row.Key) ? this.rowsByKey.get(o) : null;
+        }
+        
+        @Override
+        public Row put(Row.Key key, Row row)
+        {
+            if (key == null || row == null)
+            {
+                throw new NullPointerException("KeyIndex does not allow null keys or rows.");
+            }
+            Row[] oldRow = new Row[1];
+            Lock lock = this.table.secondaryIndexLock.readLock();
+            lock.lock();
+            try
+            {
+                this.rowsByKey.compute(key, (k, old) ->
+                {
+                    this.table.onRowReplaced(old, row);
+                    oldRow[0] = old;
+                    return row;
+                });
+            }
+            finally
+            {
+                lock.unlock();
+            }
+            return oldRow[0];
+        }
+        
+        @Override
+        public Row remove(Object o)
+        {
+            if (!(o instanceof Row.Key)) { return null; }
+            Row[] oldRow = new Row[1];
+            Lock lock = this.table.secondaryIndexLock.readLock();
+            lock.lock();
+            try
+            {
+                this.rowsByKey.computeIfPresent((Row.Key)o, (k, old) ->
+                {
+                    this.table.onRowReplaced(old, null);
+                    oldRow[0] = old;
+                    return null;
+                });
+            }
+            finally
+            {
+                lock.unlock();
+            }
+            return oldRow[0];
+        }
+        
+        @Override
+        public void clear()
+        {
+            Lock lock = this.table.secondaryIndexLock.readLock();
+            lock.lock();
+            try
+            {
+                this.rowsByKey.clear();
+                this.table.onRowsCleared();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+        
+        @Override
+        public Collection<Row> values()
+        {
+            return Collections.unmodifiableCollection(this.rowsByKey.values());
+        }
+        
+        @Override
+        public Set<Map.Entry<Row.Key, Row>> entrySet()
+        {
+            return Collections.unmodifiableSet(this.rowsByKey.entrySet());
+        }
+    }
+}
\ No newline at end of file
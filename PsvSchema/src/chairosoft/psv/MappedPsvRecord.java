@@ -0,0 +1,66 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * MappedPsvRecord.java
+ * MappedPsvRecord class definition
+ */
+
+package chairosoft.psv;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One line of a {@link MappedPsvRecordSet}, held as the byte offsets of its
+ * values inside the mapped file. A value is only decoded into a String the
+ * first time it is asked for.
+ */
+public class MappedPsvRecord
+{
+    // fields
+    public final MappedPsvRecordSet recordSet;
+    private final ByteBuffer segment;
+    private final int[] valueBounds;
+    private String[] decodedValues = null;
+    
+    // constructor
+    protected MappedPsvRecord(MappedPsvRecordSet _recordSet, ByteBuffer _segment, int[] _valueBounds)
+    {
+        this.recordSet = _recordSet;
+        this.segment = _segment;
+        this.valueBounds = _valueBounds;
+    }
+    
+    // instance methods
+    public int size() { return this.valueBounds.length - 1; }
+    public int getValueStart(int i) { return this.valueBounds[i]; }
+    public int getValueEnd(int i) { return this.valueBounds[i + 1] - 1; }
+    public int getValueLength(int i) { return this.getValueEnd(i) - this.getValueStart(i); }
+    public byte getByte(int position) { return this.segment.get(position); }
+    
+    public String getValue(int i)
+    {
+        if (this.decodedValues == null)
+        {
+            this.decodedValues = new String[this.size()];
+        }
+        String result = this.decodedValues[i];
+        if (result == null)
+        {
+            result = this.recordSet.decode(this.segment, this.getValueStart(i), this.getValueEnd(i));
+            this.decodedValues[i] = result;
+        }
+        return result;
+    }
+    
+    public PsvRecord toPsvRecord()
+    {
+        PsvRecord result = new PsvRecord(this.size());
+        for (int i = 0; i < result.values.length; ++i)
+        {
+            result.values[i] = this.getValue(i);
+        }
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,346 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * MappedPsvRecordSet.java
+ * MappedPsvRecordSet class definition
+ */
+
+package chairosoft.psv;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A read-only view of a PSV file mapped into memory with
+ * {@link FileChannel#map}. Records are produced as byte offsets into the
+ * mapping ({@link MappedPsvRecord}), so nothing is decoded until a value
+ * is asked for. The charset must encode {@link PsvRecord#VALUE_DELIMITER}
+ * and {@link PsvRecord#LINE_DELIMITER} as single bytes that never occur
+ * inside other characters (e.g. UTF-8 or ISO-8859-1).
+ */
+public class MappedPsvRecordSet implements Iterable<MappedPsvRecord>
+{
+    // constants
+    public static final int MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+    public static final byte VALUE_DELIMITER_BYTE = (byte)PsvRecord.VALUE_DELIMITER;
+    public static final byte LINE_DELIMITER_BYTE = (byte)PsvRecord.LINE_DELIMITER;
+    public static final byte CARRIAGE_RETURN_BYTE = (byte)'\r';
+    public static final int MIN_CHUNK_SIZE = 1 << 20;
+    public static final int CHUNKS_PER_THREAD = 4;
+    
+    // fields
+    public final File file;
+    public final Charset charset;
+    public final PsvRecord headerRecord;
+    protected final MappedByteBuffer[] segments;
+    protected final int bodyStart;
+    
+    // constructors
+    public MappedPsvRecordSet(File _file)
+    {
+        this(_file, 0);
+    }
+    
+    public MappedPsvRecordSet(File _file, int expectedValueCount)
+    {
+        this(_file, expectedValueCount, PsvRecord.CHARSET);
+    }
+    
+    public MappedPsvRecordSet(File _file, int expectedValueCount, Charset _charset)
+    {
+        this(_file, expectedValueCount, _charset, MAX_SEGMENT_SIZE);
+    }
+    
+    protected MappedPsvRecordSet(File _file, int expectedValueCount, Charset _charset, int maxSegmentSize)
+    {
+        this.file = _file;
+        this.charset = _charset;
+        this.segments = MappedPsvRecordSet.mapSegments(this.file, maxSegmentSize);
+        try
+        {
+            if (this.segments.length == 0)
+            {
+                throw new IllegalArgumentException("PSV file must have at least one line (a header line).");
+            }
+            ByteBuffer firstSegment = this.segments[0];
+            int headerEnd = MappedPsvRecordSet.findLineEnd(firstSegment, 0);
+            String headerLine = this.decode(firstSegment, 0, MappedPsvRecordSet.trimLineEnd(firstSegment, 0, headerEnd));
+            this.headerRecord = new PsvRecord(headerLine, expectedValueCount);
+            this.bodyStart = Math.min(headerEnd + 1, firstSegment.limit());
+        }
+        catch (Exception ex)
+        {
+            throw MappedPsvRecordSet.lineError(this.file, 1, ex);
+        }
+    }
+    
+    // static methods
+    private static MappedByteBuffer[] mapSegments(File file, int maxSegmentSize)
+    {
+        ArrayList<MappedByteBuffer> segments = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            long fileSize = channel.size();
+            long position = 0;
+            while (position < fileSize)
+            {
+                int windowSize = (int)Math.min(maxSegmentSize, fileSize - position);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                if (position + windowSize < fileSize)
+                {
+                    int lastLineEnd = windowSize - 1;
+                    while (lastLineEnd >= 0 && segment.get(lastLineEnd) != LINE_DELIMITER_BYTE) { --lastLineEnd; }
+                    if (lastLineEnd < 0)
+                    {
+                        String message = String.format("Line starting at byte %s of file %s is longer than %s bytes.", position, file, maxSegmentSize);
+                        throw new IllegalStateException(message);
+                    }
+                    ((Buffer)segment).limit(lastLineEnd + 1);
+                }
+                segments.add(segment);
+                position += segment.limit();
+            }
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+        return segments.toArray(new MappedByteBuffer[segments.size()]);
+    }
+    
+    protected static int findLineEnd(ByteBuffer segment, int lineStart)
+    {
+        int limit = segment.limit();
+        int i = lineStart;
+        while (i < limit && segment.get(i) != LINE_DELIMITER_BYTE) { ++i; }
+        return i;
+    }
+    
+    protected static int trimLineEnd(ByteBuffer segment, int lineStart, int lineEnd)
+    {
+        return (lineEnd > lineStart && segment.get(lineEnd - 1) == CARRIAGE_RETURN_BYTE) ? lineEnd - 1 : lineEnd;
+    }
+    
+    protected static IllegalStateException lineError(File file, long lineNumber, Exception cause)
+    {
+        PsvMetrics.Listener listener = PsvMetrics.getListener();
+        if (listener != null) { listener.lineFailed(file, lineNumber, cause); }
+        String message = String.format("Error in line %s of file %s.", lineNumber, file);
+        return new IllegalStateException(message, cause);
+    }
+    
+    // instance methods
+    public String decode(ByteBuffer segment, int start, int end)
+    {
+        byte[] bytes = new byte[end - start];
+        ByteBuffer view = segment.duplicate();
+        ((Buffer)view).position(start);
+        view.get(bytes);
+        return new String(bytes, this.charset);
+    }
+    
+    protected MappedPsvRecord parseLine(ByteBuffer segment, int lineStart, int lineEnd)
+    {
+        int expectedValueCount = this.headerRecord.values.length;
+        int[] valueBounds = new int[expectedValueCount + 1];
+        int valueIndex = 0;
+        valueBounds[0] = lineStart;
+        for (int i = lineStart; i < lineEnd; ++i)
+        {
+            if (segment.get(i) != VALUE_DELIMITER_BYTE) { continue; }
+            if (++valueIndex >= expectedValueCount) { break; }
+            valueBounds[valueIndex] = i + 1;
+        }
+        if (valueIndex + 1 != expectedValueCount)
+        {
+            int actualValueCount = 1;
+            for (int i = lineStart; i < lineEnd; ++i)
+            {
+                if (segment.get(i) == VALUE_DELIMITER_BYTE) { ++actualValueCount; }
+            }
+            String message = String.format("Line did not have expected number of values. Got %s, expected %s.", actualValueCount, expectedValueCount);
+            throw new IllegalArgumentException(message);
+        }
+        valueBounds[expectedValueCount] = lineEnd + 1;
+        return new MappedPsvRecord(this, segment, valueBounds);
+    }
+    
+    @Override
+    public Iterator<MappedPsvRecord> iterator()
+    {
+        return new RecordIterator();
+    }
+    
+    public PsvRecordSet toPsvRecordSet()
+    {
+        ArrayList<PsvRecord> records = new ArrayList<>();
+        for (MappedPsvRecord record : this)
+        {
+            records.add(record.toPsvRecord());
+        }
+        return new PsvRecordSet(this.headerRecord, records);
+    }
+    
+    public PsvRecordSet toPsvRecordSetParallel()
+    {
+        return this.toPsvRecordSetParallel(ForkJoinPool.commonPool());
+    }
+    
+    public PsvRecordSet toPsvRecordSetParallel(ForkJoinPool pool)
+    {
+        List<ChunkTask> tasks = this.splitIntoChunks(pool.getParallelism() * CHUNKS_PER_THREAD);
+        pool.invoke(new RecursiveAction()
+        {
+            @Override protected void compute() { ForkJoinTask.invokeAll(tasks); }
+        });
+        
+        int recordCount = 0;
+        for (ChunkTask task : tasks) { recordCount += task.records.size(); }
+        ArrayList<PsvRecord> records = new ArrayList<>(recordCount);
+        long lineNumber = 2;
+        for (ChunkTask task : tasks)
+        {
+            if (task.error != null)
+            {
+                throw MappedPsvRecordSet.lineError(this.file, lineNumber + task.lineCount, task.error);
+            }
+            records.addAll(task.records);
+            lineNumber += task.lineCount;
+        }
+        return new PsvRecordSet(this.headerRecord, records);
+    }
+    
+    protected List<ChunkTask> splitIntoChunks(int targetChunkCount)
+    {
+        long bodySize = -this.bodyStart;
+        for (MappedByteBuffer segment : this.segments) { bodySize += segment.limit(); }
+        int chunkSize = (int)Math.max(MIN_CHUNK_SIZE, Math.min(MAX_SEGMENT_SIZE, bodySize / Math.max(1, targetChunkCount)));
+        
+        ArrayList<ChunkTask> result = new ArrayList<>();
+        for (int segmentIndex = 0; segmentIndex < this.segments.length; ++segmentIndex)
+        {
+            MappedByteBuffer segment = this.segments[segmentIndex];
+            int limit = segment.limit();
+            int chunkStart = (segmentIndex == 0) ? this.bodyStart : 0;
+            while (chunkStart < limit)
+            {
+                int chunkEnd = (limit - chunkStart <= chunkSize) 
+                    ? limit 
+                    : Math.min(MappedPsvRecordSet.findLineEnd(segment, chunkStart + chunkSize - 1) + 1, limit);
+                result.add(new ChunkTask(segment, chunkStart, chunkEnd));
+                chunkStart = chunkEnd;
+            }
+        }
+        return result;
+    }
+    
+    
+    // inner classes
+    protected class ChunkTask extends RecursiveAction
+    {
+        // constants
+        private static final long serialVersionUID = 1L;
+        
+        // fields
+        public final ByteBuffer segment;
+        public final int start;
+        public final int end;
+        public final ArrayList<PsvRecord> records = new ArrayList<>();
+        public int lineCount = 0;
+        public Exception error = null;
+        
+        // constructor
+        public ChunkTask(ByteBuffer _segment, int _start, int _end)
+        {
+            this.segment = _segment;
+            this.start = _start;
+            this.end = _end;
+        }
+        
+        // instance methods
+        @Override
+        protected void compute()
+        {
+            int expectedValueCount = MappedPsvRecordSet.this.headerRecord.values.length;
+            int lineStart = this.start;
+            try
+            {
+                while (lineStart < this.end)
+                {
+                    int lineEnd = MappedPsvRecordSet.findLineEnd(this.segment, lineStart);
+                    String line = MappedPsvRecordSet.this.decode(this.segment, lineStart, MappedPsvRecordSet.trimLineEnd(this.segment, lineStart, lineEnd));
+                    this.records.add(new PsvRecord(line, expectedValueCount));
+                    ++this.lineCount;
+                    lineStart = lineEnd + 1;
+                }
+            }
+            catch (Exception ex)
+            {
+                this.error = ex;
+            }
+        }
+    }
+    
+    private class RecordIterator implements Iterator<MappedPsvRecord>
+    {
+        // fields
+        private int segmentIndex = 0;
+        private int position = MappedPsvRecordSet.this.bodyStart;
+        private long lineNumber = 2;
+        
+        // instance methods
+        @Override
+        public boolean hasNext()
+        {
+            MappedByteBuffer[] segments = MappedPsvRecordSet.this.segments;
+            while (this.segmentIndex < segments.length && this.position >= segments[this.segmentIndex].limit())
+            {
+                ++this.segmentIndex;
+                this.position = 0;
+            }
+            return this.segmentIndex < segments.length;
+        }
+        
+        @Override
+        public MappedPsvRecord next()
+        {
+            if (!this.hasNext()) { throw new NoSuchElementException(); }
+            try
+            {
+                ByteBuffer segment = MappedPsvRecordSet.this.segments[this.segmentIndex];
+                int lineStart = this.position;
+                int lineEnd = MappedPsvRecordSet.findLineEnd(segment, lineStart);
+                MappedPsvRecord record = MappedPsvRecordSet.this.parseLine(segment, lineStart, MappedPsvRecordSet.trimLineEnd(segment, lineStart, lineEnd));
+                this.position = lineEnd + 1;
+                ++this.lineNumber;
+                return record;
+            }
+            catch (Exception ex)
+            {
+                throw MappedPsvRecordSet.lineError(MappedPsvRecordSet.this.file, this.lineNumber, ex);
+            }
+        }
+        
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
\ No newline at end of file
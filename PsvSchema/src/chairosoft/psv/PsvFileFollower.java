@@ -0,0 +1,205 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * PsvFileFollower.java
+ * PsvFileFollower class definition
+ */
+
+package chairosoft.psv;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Follows a PSV file that is only ever appended to, loading it into a
+ * {@link Table}. Each call to {@link #poll()} reads from the byte offset
+ * where the previous call stopped, applies every complete line it finds
+ * as an insert or upsert into the table's {@code rowsByKey}, and notifies
+ * listeners of each change. A trailing line without a line delimiter is
+ * left for the next poll, so the cost of a poll depends only on how much
+ * was appended since the last one.
+ * <p>
+ * The offset moves past each line before it is applied, so a line that
+ * cannot be parsed or inserted is skipped rather than retried on every
+ * poll. Such lines go to the {@link LineErrorHandler} if one is set;
+ * otherwise {@link #poll()} throws, and the next poll resumes after the
+ * bad line.
+ */
+public class PsvFileFollower
+{
+    // constants
+    public static final int INITIAL_BUFFER_SIZE = 1 << 16;
+    
+    // fields
+    public final Table table;
+    public final File file;
+    private final List<RowChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private LineErrorHandler errorHandler = null;
+    public final synchronized LineErrorHandler getErrorHandler() { return this.errorHandler; }
+    public final synchronized void setErrorHandler(LineErrorHandler _errorHandler) { this.errorHandler = _errorHandler; }
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private boolean hasReadHeader = false;
+    private long offset = 0;
+    public final synchronized long getOffset() { return this.offset; }
+    private long lineNumber = 1;
+    public final synchronized long getLineNumber() { return this.lineNumber; }
+    
+    // constructor
+    public PsvFileFollower(Table _table, File _file)
+    {
+        this.table = _table;
+        this.file = _file;
+    }
+    
+    // instance methods
+    public void addListener(RowChangeListener listener)
+    {
+        this.listeners.add(listener);
+    }
+    
+    public void removeListener(RowChangeListener listener)
+    {
+        this.listeners.remove(listener);
+    }
+    
+    public synchronized void reset()
+    {
+        this.hasReadHeader = false;
+        this.offset = 0;
+        this.lineNumber = 1;
+    }
+    
+    public synchronized int poll()
+    {
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if (size < this.offset)
+            {
+                String message = String.format("File %s was truncated from %s to %s bytes while being followed.", this.file, this.offset, size);
+                throw new IllegalStateException(message);
+            }
+            
+            long bufferStart = this.offset;
+            int length = 0;
+            int lineStart = 0;
+            while (bufferStart + length < size)
+            {
+                if (lineStart > 0)
+                {
+                    System.arraycopy(this.buffer, lineStart, this.buffer, 0, length - lineStart);
+                    bufferStart += lineStart;
+                    length -= lineStart;
+                    lineStart = 0;
+                }
+                if (length == this.buffer.length)
+                {
+                    this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+                }
+                int readLength = (int)Math.min(this.buffer.length - length, size - bufferStart - length);
+                int read = channel.read(ByteBuffer.wrap(this.buffer, length, readLength), bufferStart + length);
+                if (read <= 0) { break; }
+                
+                int scanStart = length;
+                length += read;
+                for (int i = scanStart; i < length; ++i)
+                {
+                    if (this.buffer[i] != PsvRecord.LINE_DELIMITER) { continue; }
+                    String line = this.decodeLine(lineStart, i);
+                    lineStart = i + 1;
+                    boolean isHeader = !this.hasReadHeader;
+                    if (isHeader) { this.checkHeader(line); }
+                    long currentLineNumber = this.lineNumber;
+                    this.offset = bufferStart + lineStart;
+                    ++this.lineNumber;
+                    if (!isHeader && this.applyLine(line, currentLineNumber)) { ++count; }
+                }
+            }
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+        return count;
+    }
+    
+    private String decodeLine(int lineStart, int lineEnd)
+    {
+        if (lineEnd > lineStart && this.buffer[lineEnd - 1] == '\r') { --lineEnd; }
+        return new String(this.buffer, lineStart, lineEnd - lineStart, PsvRecord.CHARSET);
+    }
+    
+    /** Checks the header line; a mismatch is not skipped, since every later line would be wrong too. */
+    private void checkHeader(String line)
+    {
+        try
+        {
+            this.table.checkPsvHeader(new PsvRecord(line, this.table.columns.length), this.file);
+        }
+        catch (Exception ex)
+        {
+            String message = String.format("Error in line %s of file %s.", this.lineNumber, this.file);
+            throw new IllegalStateException(message, ex);
+        }
+        this.hasReadHeader = true;
+    }
+    
+    /** Applies one line after the offset has moved past it, returning whether a row was added. */
+    private boolean applyLine(String line, long currentLineNumber)
+    {
+        Row oldRow;
+        Row newRow;
+        try
+        {
+            newRow = this.table.parseRow(new PsvRecord(line, this.table.columns.length));
+            oldRow = this.table.addRow(newRow);
+        }
+        catch (Exception ex)
+        {
+            if (this.errorHandler != null)
+            {
+                this.errorHandler.lineFailed(currentLineNumber, line, ex);
+                return false;
+            }
+            String message = String.format("Error in line %s of file %s.", currentLineNumber, this.file);
+            throw new IllegalStateException(message, ex);
+        }
+        for (RowChangeListener listener : this.listeners)
+        {
+            listener.rowChanged(oldRow, newRow);
+        }
+        return true;
+    }
+    
+    
+    // inner interfaces
+    @FunctionalInterface
+    public interface RowChangeListener
+    {
+        /**
+         * Called after a followed line has been applied. {@code oldRow} is the
+         * row that had the same key before, or null if the row is new.
+         */
+        void rowChanged(Row oldRow, Row newRow);
+    }
+    
+    @FunctionalInterface
+    public interface LineErrorHandler
+    {
+        /**
+         * Called when a followed line cannot be parsed or inserted. The line
+         * has already been skipped and will not be read again.
+         */
+        void lineFailed(long lineNumber, String line, Exception cause);
+    }
+}
\ No newline at end of file
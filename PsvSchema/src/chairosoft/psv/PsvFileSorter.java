@@ -0,0 +1,274 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * PsvFileSorter.java
+ * PsvFileSorter class definition
+ */
+
+package chairosoft.psv;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts PSV files of a {@link Table} by its primary key columns, for files
+ * larger than the heap. The input is read in runs of about
+ * {@code runSize} bytes; each run is sorted with
+ * {@link Arrays#parallelSort} and written to a temporary file, and the runs
+ * are then merged (at most {@code mergeWidth} at a time) into the output,
+ * which keeps the header line. INTEGER key columns compare numerically and
+ * other key columns through {@link ColumnType#compareLiterals}. The sort is
+ * stable.
+ * <p>
+ * The sorted output is written to a temporary file next to the output file
+ * and renamed onto it only once it is complete, after the input has been
+ * closed, so the output file may be the input file and a failed sort leaves
+ * it as it was.
+ */
+public class PsvFileSorter
+{
+    // constants
+    public static final long DEFAULT_RUN_SIZE = 64L << 20;
+    public static final int DEFAULT_MERGE_WIDTH = 64;
+    private static final int RECORD_OVERHEAD = 64;
+    
+    // fields
+    public final Table table;
+    private final int[] keyColumnIndexes;
+    private final ColumnType[] keyTypes;
+    private long runSize = DEFAULT_RUN_SIZE;
+    public final long getRunSize() { return this.runSize; }
+    public final void setRunSize(long _runSize) { this.runSize = Math.max(1, _runSize); }
+    private int mergeWidth = DEFAULT_MERGE_WIDTH;
+    public final int getMergeWidth() { return this.mergeWidth; }
+    public final void setMergeWidth(int _mergeWidth) { this.mergeWidth = Math.max(2, _mergeWidth); }
+    
+    // constructor
+    public PsvFileSorter(Table _table)
+    {
+        this.table = _table;
+        this.keyColumnIndexes = this.table.keyColumnIndexes;
+        this.keyTypes = new ColumnType[this.keyColumnIndexes.length];
+        for (int i = 0; i < this.keyTypes.length; ++i)
+        {
+            this.keyTypes[i] = this.table.keyColumns[i].type;
+        }
+    }
+    
+    // instance methods
+    public long sort(File inputFile, File outputFile)
+        throws IOException
+    {
+        long count = 0;
+        List<File> runs = new ArrayList<>();
+        List<File> temporaryFiles = new ArrayList<>();
+        ArrayList<SortEntry> run = new ArrayList<>();
+        try
+        {
+            try (PsvRecordReader reader = new PsvRecordReader(inputFile, this.table.columns.length))
+            {
+                this.table.checkPsvHeader(reader.headerRecord, inputFile);
+                long runBytes = 0;
+                while (reader.hasNext())
+                {
+                    PsvRecord record = reader.next();
+                    SortEntry entry;
+                    try
+                    {
+                        entry = new SortEntry(record);
+                    }
+                    catch (RuntimeException ex)
+                    {
+                        String message = String.format("Error in line %s of file %s.", reader.getLineNumber() - 1, inputFile);
+                        throw new IllegalStateException(message, ex);
+                    }
+                    run.add(entry);
+                    runBytes += PsvFileSorter.estimateSize(record);
+                    ++count;
+                    if (runBytes >= this.runSize)
+                    {
+                        runs.add(this.writeRun(run, null));
+                        temporaryFiles.add(runs.get(runs.size() - 1));
+                        run.clear();
+                        runBytes = 0;
+                    }
+                }
+                if (!runs.isEmpty() && !run.isEmpty())
+                {
+                    runs.add(this.writeRun(run, null));
+                    temporaryFiles.add(runs.get(runs.size() - 1));
+                    run.clear();
+                }
+            }
+            
+            File sortedFile = File.createTempFile("psv-sort-", ".psv", outputFile.getAbsoluteFile().getParentFile());
+            temporaryFiles.add(sortedFile);
+            if (runs.isEmpty())
+            {
+                this.writeRun(run, sortedFile);
+                PsvFileSorter.replace(sortedFile, outputFile);
+                return count;
+            }
+            
+            while (runs.size() > this.mergeWidth)
+            {
+                List<File> mergedRuns = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += this.mergeWidth)
+                {
+                    List<File> group = runs.subList(i, Math.min(runs.size(), i + this.mergeWidth));
+                    mergedRuns.add(this.merge(group, null));
+                    temporaryFiles.add(mergedRuns.get(mergedRuns.size() - 1));
+                    for (File groupRun : group) { groupRun.delete(); }
+                }
+                runs = mergedRuns;
+            }
+            this.merge(runs, sortedFile);
+            PsvFileSorter.replace(sortedFile, outputFile);
+            return count;
+        }
+        finally
+        {
+            for (File temporaryFile : temporaryFiles) { temporaryFile.delete(); }
+        }
+    }
+    
+    private static void replace(File sortedFile, File outputFile)
+        throws IOException
+    {
+        try
+        {
+            Files.move(sortedFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException ex)
+        {
+            Files.move(sortedFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    private static long estimateSize(PsvRecord record)
+    {
+        long result = RECORD_OVERHEAD;
+        for (String value : record.values)
+        {
+            result += RECORD_OVERHEAD / 2 + 2L * value.length();
+        }
+        return result;
+    }
+    
+    private File writeRun(List<SortEntry> run, File outputFile)
+        throws IOException
+    {
+        SortEntry[] entries = run.toArray(new SortEntry[run.size()]);
+        Arrays.parallelSort(entries, this::compare);
+        File result = (outputFile != null) ? outputFile : File.createTempFile("psv-sort-", ".psv");
+        try (PsvRecordWriter writer = new PsvRecordWriter(result, this.table.psvHeader))
+        {
+            for (SortEntry entry : entries)
+            {
+                writer.write(entry.record);
+            }
+        }
+        return result;
+    }
+    
+    private File merge(List<File> runs, File outputFile)
+        throws IOException
+    {
+        File result = (outputFile != null) ? outputFile : File.createTempFile("psv-sort-", ".psv");
+        PriorityQueue<RunCursor> queue = new PriorityQueue<>(runs.size(), (c1, c2) ->
+        {
+            int comparison = this.compare(c1.entry, c2.entry);
+            return (comparison != 0) ? comparison : Integer.compare(c1.runIndex, c2.runIndex);
+        });
+        List<RunCursor> cursors = new ArrayList<>(runs.size());
+        try (PsvRecordWriter writer = new PsvRecordWriter(result, this.table.psvHeader))
+        {
+            for (int i = 0; i < runs.size(); ++i)
+            {
+                RunCursor cursor = new RunCursor(i, new PsvRecordReader(runs.get(i), this.table.columns.length));
+                cursors.add(cursor);
+                if (cursor.advance()) { queue.add(cursor); }
+            }
+            while (!queue.isEmpty())
+            {
+                RunCursor cursor = queue.poll();
+                writer.write(cursor.entry.record);
+                if (cursor.advance()) { queue.add(cursor); }
+            }
+        }
+        finally
+        {
+            for (RunCursor cursor : cursors) { cursor.reader.close(); }
+        }
+        return result;
+    }
+    
+    private int compare(SortEntry entry1, SortEntry entry2)
+    {
+        for (int i = 0; i < this.keyTypes.length; ++i)
+        {
+            int result = (this.keyTypes[i] == ColumnType.INTEGER)
+                ? Integer.compare(entry1.intKeys[i], entry2.intKeys[i])
+                : this.keyTypes[i].compareLiterals(entry1.literalKeys[i], entry2.literalKeys[i]);
+            if (result != 0) { return result; }
+        }
+        return 0;
+    }
+    
+    
+    // inner classes
+    /** A record with its key columns parsed once, so the sort does not re-parse them. */
+    private class SortEntry
+    {
+        // fields
+        public final PsvRecord record;
+        public final int[] intKeys;
+        public final String[] literalKeys;
+        
+        // constructor
+        public SortEntry(PsvRecord _record)
+        {
+            this.record = _record;
+            ColumnType[] keyTypes = PsvFileSorter.this.keyTypes;
+            this.intKeys = new int[keyTypes.length];
+            this.literalKeys = new String[keyTypes.length];
+            for (int i = 0; i < keyTypes.length; ++i)
+            {
+                String literal = this.record.values[PsvFileSorter.this.keyColumnIndexes[i]];
+                if (keyTypes[i] == ColumnType.INTEGER) { this.intKeys[i] = Integer.parseInt(literal); }
+                else { this.literalKeys[i] = keyTypes[i].normalizeLiteral(literal); }
+            }
+        }
+    }
+    
+    private class RunCursor
+    {
+        // fields
+        public final int runIndex;
+        public final PsvRecordReader reader;
+        public SortEntry entry = null;
+        
+        // constructor
+        public RunCursor(int _runIndex, PsvRecordReader _reader)
+        {
+            this.runIndex = _runIndex;
+            this.reader = _reader;
+        }
+        
+        // instance methods
+        public boolean advance()
+        {
+            this.entry = this.reader.hasNext() ? new SortEntry(this.reader.next()) : null;
+            return this.entry != null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,290 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * PsvMetrics.java
+ * PsvMetrics class definition
+ */
+
+package chairosoft.psv;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Instrumentation hooks for the load pipeline: reading PSV files, parsing
+ * values into a {@link Table}, inserting rows, and failed lines. There is
+ * one process-wide {@link Listener}, null by default; each instrumented
+ * method reads it once and only measures anything when it is set, so
+ * nothing is timed or allocated while no listener is installed.
+ * <p>
+ * {@link Collector} is a listener that keeps running totals, and can be
+ * registered as a JMX MXBean under {@value #OBJECT_NAME}.
+ */
+public final class PsvMetrics
+{
+    // constants
+    public static final String OBJECT_NAME = "chairosoft.psv:type=PsvMetrics";
+    
+    // static fields
+    private static volatile Listener listener = null;
+    public static Listener getListener() { return PsvMetrics.listener; }
+    public static void setListener(Listener _listener) { PsvMetrics.listener = _listener; }
+    
+    // constructor
+    private PsvMetrics() { }
+    
+    // static methods
+    /**
+     * Installs a new {@link Collector} as the listener, optionally
+     * registering it with the platform MBean server, and returns it.
+     */
+    public static Collector install(boolean registerMBean)
+    {
+        Collector result = new Collector();
+        if (registerMBean) { result.registerMBean(); }
+        PsvMetrics.setListener(result);
+        return result;
+    }
+    
+    
+    // inner interfaces
+    /**
+     * Receives load pipeline events. Calls can come from several threads at
+     * once (parallel reads and concurrent tables), so implementations must
+     * be thread-safe.
+     */
+    public interface Listener
+    {
+        /** Called after a whole file has been read into records or a table. */
+        default void fileRead(File file, long byteCount, long recordCount, long elapsedNanos) { }
+        
+        /** Called after a record is parsed into a row, with the time spent on each column. */
+        default void valuesParsed(Table table, long[] elapsedNanosByColumn) { }
+        
+        /** Called after a row is put in its table; {@code oldRow} is non-null on a key collision. */
+        default void rowAdded(Table table, Row oldRow, Row newRow) { }
+        
+        /** Called when a line of a file cannot be read, parsed or inserted. */
+        default void lineFailed(File file, long lineNumber, Exception cause) { }
+    }
+    
+    public interface CollectorMXBean
+    {
+        long getBytesRead();
+        long getRecordsRead();
+        long getReadNanos();
+        double getRecordsPerSecond();
+        long getRowsAdded();
+        long getKeyCollisions();
+        long getErrorCount();
+        Map<String, Long> getColumnParseNanos();
+        Map<String, Double> getColumnAverageParseNanos();
+        Map<String, Integer> getRowsByKeySizes();
+        void reset();
+    }
+    
+    
+    // static inner classes
+    public static class Collector implements Listener, CollectorMXBean
+    {
+        // fields
+        private final LongAdder bytesRead = new LongAdder();
+        private final LongAdder recordsRead = new LongAdder();
+        private final LongAdder readNanos = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+        private final ConcurrentHashMap<String, TableStats> statsByTableName = new ConcurrentHashMap<>();
+        private ObjectName objectName = null;
+        
+        // instance methods
+        /** Stats are kept by table name, so the collector never keeps a table (or its rows) reachable. */
+        private TableStats statsOf(Table table)
+        {
+            TableStats stats = this.statsByTableName.get(table.name);
+            if (stats != null && stats.columnNames.length == table.columns.length) { return stats; }
+            return this.statsByTableName.compute(table.name, (name, old) -> (old != null && old.columnNames.length == table.columns.length) ? old : new TableStats(table));
+        }
+        
+        @Override
+        public void fileRead(File file, long byteCount, long recordCount, long elapsedNanos)
+        {
+            this.bytesRead.add(byteCount);
+            this.recordsRead.add(recordCount);
+            this.readNanos.add(elapsedNanos);
+        }
+        
+        @Override
+        public void valuesParsed(Table table, long[] elapsedNanosByColumn)
+        {
+            TableStats stats = this.statsOf(table);
+            stats.rowsParsed.increment();
+            for (int i = 0; i < elapsedNanosByColumn.length; ++i)
+            {
+                stats.parseNanosByColumn[i].add(elapsedNanosByColumn[i]);
+            }
+        }
+        
+        @Override
+        public void rowAdded(Table table, Row oldRow, Row newRow)
+        {
+            TableStats stats = this.statsOf(table);
+            stats.rowsAdded.increment();
+            if (oldRow != null) { stats.keyCollisions.increment(); }
+        }
+        
+        @Override
+        public void lineFailed(File file, long lineNumber, Exception cause)
+        {
+            this.errorCount.increment();
+        }
+        
+        @Override public long getBytesRead() { return this.bytesRead.sum(); }
+        @Override public long getRecordsRead() { return this.recordsRead.sum(); }
+        @Override public long getReadNanos() { return this.readNanos.sum(); }
+        @Override public long getErrorCount() { return this.errorCount.sum(); }
+        
+        @Override
+        public double getRecordsPerSecond()
+        {
+            long nanos = this.readNanos.sum();
+            return (nanos == 0) ? 0.0 : this.recordsRead.sum() * 1e9 / nanos;
+        }
+        
+        @Override
+        public long getRowsAdded()
+        {
+            return this.statsByTableName.values().stream().mapToLong(s -> s.rowsAdded.sum()).sum();
+        }
+        
+        @Override
+        public long getKeyCollisions()
+        {
+            return this.statsByTableName.values().stream().mapToLong(s -> s.keyCollisions.sum()).sum();
+        }
+        
+        /** Total parse time per column, keyed by {@code table.column}. */
+        @Override
+        public Map<String, Long> getColumnParseNanos()
+        {
+            Map<String, Long> result = new TreeMap<>();
+            for (TableStats stats : this.statsByTableName.values())
+            {
+                for (int i = 0; i < stats.parseNanosByColumn.length; ++i)
+                {
+                    result.put(stats.columnName(i), stats.parseNanosByColumn[i].sum());
+                }
+            }
+            return result;
+        }
+        
+        /** Mean parse time of one value per column, keyed by {@code table.column}. */
+        @Override
+        public Map<String, Double> getColumnAverageParseNanos()
+        {
+            Map<String, Double> result = new TreeMap<>();
+            for (TableStats stats : this.statsByTableName.values())
+            {
+                long rowsParsed = stats.rowsParsed.sum();
+                for (int i = 0; i < stats.parseNanosByColumn.length; ++i)
+                {
+                    result.put(stats.columnName(i), (rowsParsed == 0) ? 0.0 : (double)stats.parseNanosByColumn[i].sum() / rowsParsed);
+                }
+            }
+            return result;
+        }
+        
+        /** Current number of rows in each registered table that has had rows parsed or added. */
+        @Override
+        public Map<String, Integer> getRowsByKeySizes()
+        {
+            Map<String, Integer> result = new TreeMap<>();
+            for (String tableName : this.statsByTableName.keySet())
+            {
+                Table table = Table.getTable(tableName);
+                if (table != null) { result.put(tableName, table.rowsByKey.size()); }
+            }
+            return result;
+        }
+        
+        @Override
+        public void reset()
+        {
+            this.bytesRead.reset();
+            this.recordsRead.reset();
+            this.readNanos.reset();
+            this.errorCount.reset();
+            this.statsByTableName.clear();
+        }
+        
+        public synchronized void registerMBean()
+        {
+            if (this.objectName != null) { return; }
+            try
+            {
+                ObjectName name = new ObjectName(OBJECT_NAME);
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                if (server.isRegistered(name)) { server.unregisterMBean(name); }
+                server.registerMBean(this, name);
+                this.objectName = name;
+            }
+            catch (JMException ex)
+            {
+                String message = String.format("Could not register metrics MBean (%s).", OBJECT_NAME);
+                throw new IllegalStateException(message, ex);
+            }
+        }
+        
+        public synchronized void unregisterMBean()
+        {
+            if (this.objectName == null) { return; }
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.objectName);
+                this.objectName = null;
+            }
+            catch (JMException ex)
+            {
+                String message = String.format("Could not unregister metrics MBean (%s).", OBJECT_NAME);
+                throw new IllegalStateException(message, ex);
+            }
+        }
+    }
+    
+    private static class TableStats
+    {
+        // fields
+        public final String tableName;
+        public final String[] columnNames;
+        public final LongAdder rowsParsed = new LongAdder();
+        public final LongAdder rowsAdded = new LongAdder();
+        public final LongAdder keyCollisions = new LongAdder();
+        public final LongAdder[] parseNanosByColumn;
+        
+        // constructor
+        public TableStats(Table table)
+        {
+            this.tableName = table.name;
+            this.columnNames = new String[table.columns.length];
+            this.parseNanosByColumn = new LongAdder[table.columns.length];
+            for (int i = 0; i < this.parseNanosByColumn.length; ++i)
+            {
+                this.columnNames[i] = table.columns[i].name;
+                this.parseNanosByColumn[i] = new LongAdder();
+            }
+        }
+        
+        // instance methods
+        public String columnName(int i)
+        {
+            return this.tableName + "." + this.columnNames[i];
+        }
+    }
+}
\ No newline at end of file
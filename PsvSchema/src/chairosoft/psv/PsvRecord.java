@@ -11,6 +11,8 @@ package chairosoft.psv;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -24,6 +26,8 @@ public class PsvRecord
     public static final String VALUE_DELIMITER_REGEX = "\\|";
     public static final char VALUE_DELIMITER = '|';
     public static final char LINE_DELIMITER = '\n';
+    /** The charset every PSV reader and writer in this package uses for files. */
+    public static final Charset CHARSET = StandardCharsets.UTF_8;
     
     // fields
     public final String[] values;
@@ -57,15 +61,117 @@ public class PsvRecord
     
     public PsvRecord(String rawLine, int expectedValueCount)
     {
-        String[] resultValues = rawLine.split(VALUE_DELIMITER_REGEX, -1);
-        
-        if (expectedValueCount > 0 && resultValues.length != expectedValueCount)
+        int valueCount = expectedValueCount > 0 ? expectedValueCount : PsvRecord.countValues(rawLine);
+        this.values = new String[valueCount];
+        PsvRecord.splitInto(rawLine, this.values);
+    }
+    
+    // static methods
+    public static int countValues(String rawLine)
+    {
+        int result = 1;
+        for (int i = rawLine.indexOf(VALUE_DELIMITER); i >= 0; i = rawLine.indexOf(VALUE_DELIMITER, i + 1))
         {
-            String message = String.format("Line did not have expected number of values. Got %s, expected %s.", resultValues.length, expectedValueCount);
-            throw new IllegalArgumentException(message);
+            ++result;
         }
-        
-        this.values = resultValues;
+        return result;
+    }
+    
+    /**
+     * Splits a raw line on {@link #VALUE_DELIMITER} into the given array,
+     * keeping empty trailing values (the same result as 
+     * {@code rawLine.split(VALUE_DELIMITER_REGEX, -1)}).
+     * @param rawLine the line to split
+     * @param targetValues the array to fill; its length is the expected number of values
+     * @throws IllegalArgumentException if the line does not have exactly 
+     *         {@code targetValues.length} values
+     */
+    public static void splitInto(String rawLine, String[] targetValues)
+    {
+        int valueIndex = 0;
+        int valueStart = 0;
+        int length = rawLine.length();
+        for (int i = 0; i < length; ++i)
+        {
+            if (rawLine.charAt(i) != VALUE_DELIMITER) { continue; }
+            if (valueIndex + 1 >= targetValues.length)
+            {
+                PsvRecord.throwUnexpectedValueCount(PsvRecord.countValues(rawLine), targetValues.length);
+            }
+            targetValues[valueIndex++] = rawLine.substring(valueStart, i);
+            valueStart = i + 1;
+        }
+        if (valueIndex + 1 != targetValues.length)
+        {
+            PsvRecord.throwUnexpectedValueCount(valueIndex + 1, targetValues.length);
+        }
+        targetValues[valueIndex] = rawLine.substring(valueStart, length);
+    }
+    
+    /**
+     * Finds the end of one value of a raw line, for parsers that read
+     * values in place instead of splitting the line first.
+     * @param rawLine the line being parsed
+     * @param valueStart the index of the first character of the value
+     * @param valueIndex the position of the value in the line
+     * @param expectedValueCount the number of values the line must have
+     * @return the index of the delimiter after the value, or the length of
+     *         the line for the last value
+     * @throws IllegalArgumentException if the line has fewer or more values
+     *         than {@code expectedValueCount}
+     */
+    public static int valueEnd(String rawLine, int valueStart, int valueIndex, int expectedValueCount)
+    {
+        int delimiterIndex = rawLine.indexOf(VALUE_DELIMITER, valueStart);
+        boolean isLast = (valueIndex + 1 == expectedValueCount);
+        if (isLast != (delimiterIndex < 0))
+        {
+            PsvRecord.throwUnexpectedValueCount(PsvRecord.countValues(rawLine), expectedValueCount);
+        }
+        return isLast ? rawLine.length() : delimiterIndex;
+    }
+    
+    /** Parses a decimal int the way {@link Integer#parseInt(String)} does, without building a substring. */
+    public static int parseInt(String rawLine, int start, int end)
+    {
+        int i = start;
+        boolean isNegative = false;
+        if (i < end && (rawLine.charAt(i) == '-' || rawLine.charAt(i) == '+'))
+        {
+            isNegative = rawLine.charAt(i) == '-';
+            ++i;
+        }
+        if (i == end)
+        {
+            throw new NumberFormatException(String.format("For input string: \"%s\"", rawLine.substring(start, end)));
+        }
+        long result = 0;
+        for (; i < end; ++i)
+        {
+            int digit = rawLine.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || (result = result * 10 + digit) > 1L + Integer.MAX_VALUE)
+            {
+                throw new NumberFormatException(String.format("For input string: \"%s\"", rawLine.substring(start, end)));
+            }
+        }
+        result = isNegative ? -result : result;
+        if (result > Integer.MAX_VALUE)
+        {
+            throw new NumberFormatException(String.format("For input string: \"%s\"", rawLine.substring(start, end)));
+        }
+        return (int)result;
+    }
+    
+    /** Parses a boolean the way {@link Boolean#parseBoolean(String)} does, without building a substring. */
+    public static boolean parseBoolean(String rawLine, int start, int end)
+    {
+        return (end - start == 4) && rawLine.regionMatches(true, start, "true", 0, 4);
+    }
+    
+    private static void throwUnexpectedValueCount(int actualValueCount, int expectedValueCount)
+    {
+        String message = String.format("Line did not have expected number of values. Got %s, expected %s.", actualValueCount, expectedValueCount);
+        throw new IllegalArgumentException(message);
     }
     
     // instance methods
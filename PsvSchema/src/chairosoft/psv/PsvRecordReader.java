@@ -0,0 +1,139 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * PsvRecordReader.java
+ * PsvRecordReader class definition
+ */
+
+package chairosoft.psv;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the records of a PSV file one line at a time. The header line is
+ * read (and its value count checked) when the reader is opened; each call
+ * to {@link #next()} then parses exactly one more line, so memory use does
+ * not depend on the size of the file.
+ */
+public class PsvRecordReader implements Iterator<PsvRecord>, AutoCloseable
+{
+    // fields
+    public final File file;
+    public final PsvRecord headerRecord;
+    private final BufferedReader reader;
+    private int lineNumber = 1;
+    public final int getLineNumber() { return this.lineNumber; }
+    private String nextLine = null;
+    
+    // constructors
+    public PsvRecordReader(File _file)
+    {
+        this(_file, 0);
+    }
+    
+    public PsvRecordReader(File _file, int expectedValueCount)
+    {
+        this.file = _file;
+        try
+        {
+            this.reader = new BufferedReader(new InputStreamReader(new FileInputStream(this.file), PsvRecord.CHARSET));
+        }
+        catch (FileNotFoundException ex)
+        {
+            throw new RuntimeException(ex);
+        }
+        
+        try
+        {
+            String headerLine = this.reader.readLine();
+            if (headerLine == null)
+            {
+                throw new IllegalArgumentException("PSV file must have at least one line (a header line).");
+            }
+            this.headerRecord = new PsvRecord(headerLine, expectedValueCount);
+            ++this.lineNumber;
+            this.nextLine = this.reader.readLine();
+        }
+        catch (Exception ex)
+        {
+            this.closeQuietly();
+            throw this.lineError(ex);
+        }
+    }
+    
+    // instance methods
+    @Override
+    public boolean hasNext()
+    {
+        return this.nextLine != null;
+    }
+    
+    @Override
+    public PsvRecord next()
+    {
+        if (this.nextLine == null) { throw new NoSuchElementException(); }
+        try
+        {
+            PsvRecord record = new PsvRecord(this.nextLine, this.headerRecord.values.length);
+            ++this.lineNumber;
+            this.nextLine = this.reader.readLine();
+            return record;
+        }
+        catch (Exception ex)
+        {
+            throw this.lineError(ex);
+        }
+    }
+    
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException();
+    }
+    
+    public Stream<PsvRecord> stream()
+    {
+        Spliterator<PsvRecord> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+    
+    @Override
+    public void close()
+    {
+        try
+        {
+            this.reader.close();
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    private void closeQuietly()
+    {
+        try { this.reader.close(); } catch (IOException ex) { }
+    }
+    
+    private IllegalStateException lineError(Exception cause)
+    {
+        PsvMetrics.Listener listener = PsvMetrics.getListener();
+        if (listener != null) { listener.lineFailed(this.file, this.lineNumber, cause); }
+        String message = String.format("Error in line %s of file %s.", this.lineNumber, this.file);
+        return new IllegalStateException(message, cause);
+    }
+}
\ No newline at end of file
@@ -10,14 +10,13 @@
 package chairosoft.psv;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Scanner;
+import java.util.stream.Stream;
 
 public class PsvRecordSet
 {
@@ -40,52 +39,52 @@ public class PsvRecordSet
     
     public static PsvRecordSet readFrom(File file, int expectedValueCount)
     {
-        PsvRecord headerRecord = null;
+        PsvMetrics.Listener listener = PsvMetrics.getListener();
+        long startNanos = (listener == null) ? 0 : System.nanoTime();
         ArrayList<PsvRecord> records = new ArrayList<>();
-        int lineNumber = 1;
-        try (Scanner scanner = new Scanner(file))
+        try (PsvRecordReader reader = new PsvRecordReader(file, expectedValueCount))
         {
-            String headerLine = "";
-            if (scanner.hasNextLine())
+            while (reader.hasNext())
             {
-                headerLine = scanner.nextLine();
+                records.add(reader.next());
             }
-            else
-            {
-                throw new IllegalArgumentException("PSV file must have at least one line (a header line).");
-            }
-            headerRecord = new PsvRecord(headerLine, expectedValueCount);
-            ++lineNumber;
-            
-            while (scanner.hasNextLine())
-            {
-                String line = scanner.nextLine();
-                PsvRecord record = new PsvRecord(line, headerRecord.values.length);
-                records.add(record);
-                ++lineNumber;
-            }
-        }
-        catch (FileNotFoundException ex)
-        {
-            throw new RuntimeException(ex);
-        }
-        catch (Exception ex)
-        {
-            String message = String.format("Error in line %s of file %s.", lineNumber, file);
-            throw new IllegalStateException(message, ex);
+            if (listener != null) { listener.fileRead(file, file.length(), records.size(), System.nanoTime() - startNanos); }
+            return new PsvRecordSet(reader.headerRecord, records);
         }
-        
-        return new PsvRecordSet(headerRecord, records);
+    }
+    
+    public static PsvRecordSet readFromParallel(File file, int expectedValueCount)
+    {
+        PsvMetrics.Listener listener = PsvMetrics.getListener();
+        long startNanos = (listener == null) ? 0 : System.nanoTime();
+        PsvRecordSet result = PsvRecordSet.map(file, expectedValueCount).toPsvRecordSetParallel();
+        if (listener != null) { listener.fileRead(file, file.length(), result.records.size(), System.nanoTime() - startNanos); }
+        return result;
+    }
+    
+    public static PsvRecordReader openReader(File file, int expectedValueCount)
+    {
+        return new PsvRecordReader(file, expectedValueCount);
+    }
+    
+    public static Stream<PsvRecord> stream(File file, int expectedValueCount)
+    {
+        return PsvRecordSet.openReader(file, expectedValueCount).stream();
+    }
+    
+    public static MappedPsvRecordSet map(File file, int expectedValueCount)
+    {
+        return new MappedPsvRecordSet(file, expectedValueCount);
     }
     
     // instance methods
     public void writeTo(Writer writer)
         throws IOException
     {
-        this.headerRecord.writeTo(writer);
+        PsvRecordWriter recordWriter = new PsvRecordWriter(writer, this.headerRecord);
         for (PsvRecord record : this.records)
         {
-            record.writeTo(writer);
+            recordWriter.write(record);
         }
     }
 }
\ No newline at end of file
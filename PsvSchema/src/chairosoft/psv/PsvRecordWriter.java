@@ -0,0 +1,72 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * PsvRecordWriter.java
+ * PsvRecordWriter class definition
+ */
+
+package chairosoft.psv;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Writes a PSV file one record at a time. The header record is written
+ * when the writer is opened, and every record written afterward must have
+ * the same number of values as the header.
+ */
+public class PsvRecordWriter implements AutoCloseable
+{
+    // fields
+    public final PsvRecord headerRecord;
+    private final Writer writer;
+    private int lineNumber = 1;
+    public final int getLineNumber() { return this.lineNumber; }
+    
+    // constructors
+    public PsvRecordWriter(File file, PsvRecord _headerRecord)
+        throws IOException
+    {
+        this(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), PsvRecord.CHARSET)), _headerRecord);
+    }
+    
+    public PsvRecordWriter(Writer _writer, PsvRecord _headerRecord)
+        throws IOException
+    {
+        this.headerRecord = _headerRecord;
+        this.writer = _writer;
+        this.headerRecord.writeTo(this.writer);
+    }
+    
+    // instance methods
+    public void write(PsvRecord record)
+        throws IOException
+    {
+        if (record.values.length != this.headerRecord.values.length)
+        {
+            String message = String.format("Record for line %s did not have expected number of values. Got %s, expected %s.", this.lineNumber + 1, record.values.length, this.headerRecord.values.length);
+            throw new IllegalArgumentException(message);
+        }
+        record.writeTo(this.writer);
+        ++this.lineNumber;
+    }
+    
+    public void flush()
+        throws IOException
+    {
+        this.writer.flush();
+    }
+    
+    @Override
+    public void close()
+        throws IOException
+    {
+        this.writer.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,265 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * PsvRowWriter.java
+ * PsvRowWriter class definition
+ */
+
+package chairosoft.psv;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes {@link Row}s as PSV in {@link PsvRecord#CHARSET} (UTF-8, encoded
+ * by hand) straight into a reusable byte buffer that is flushed to a
+ * channel when full. Ints, booleans, strings and PSV
+ * identifiers are encoded in place, so writing a row does not build a
+ * {@link PsvRecord} or any intermediate Strings.
+ */
+public class PsvRowWriter implements AutoCloseable
+{
+    // constants
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    private static final byte[] TRUE_BYTES = { 't', 'r', 'u', 'e' };
+    private static final byte[] FALSE_BYTES = { 'f', 'a', 'l', 's', 'e' };
+    private static final byte[] MIN_INT_BYTES = { '-', '2', '1', '4', '7', '4', '8', '3', '6', '4', '8' };
+    
+    // fields
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] digits = new byte[10];
+    
+    // constructors
+    public PsvRowWriter(WritableByteChannel _channel)
+    {
+        this(_channel, DEFAULT_BUFFER_SIZE);
+    }
+    
+    public PsvRowWriter(WritableByteChannel _channel, int bufferSize)
+    {
+        this.channel = _channel;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, 16));
+    }
+    
+    // static methods
+    public static PsvRowWriter open(File file)
+        throws IOException
+    {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        return new PsvRowWriter(channel);
+    }
+    
+    // instance methods
+    public void writeTable(Table table)
+        throws IOException
+    {
+        this.writeHeader(table);
+        for (Row row : table.rowsByKey.values())
+        {
+            this.writeRow(row);
+        }
+    }
+    
+    public void writeHeader(Table table)
+        throws IOException
+    {
+        this.writeRecord(table.psvHeader);
+    }
+    
+    public void writeRecord(PsvRecord record)
+        throws IOException
+    {
+        for (int i = 0; i < record.values.length; ++i)
+        {
+            if (i > 0) { this.writeByte((byte)PsvRecord.VALUE_DELIMITER); }
+            this.writeString(record.values[i]);
+        }
+        this.writeByte((byte)PsvRecord.LINE_DELIMITER);
+    }
+    
+    public void writeRow(Row row)
+        throws IOException
+    {
+        ColumnValue[] values = row.values;
+        for (int i = 0; i < values.length; ++i)
+        {
+            if (i > 0) { this.writeByte((byte)PsvRecord.VALUE_DELIMITER); }
+            this.writeValue(values[i]);
+        }
+        this.writeByte((byte)PsvRecord.LINE_DELIMITER);
+    }
+    
+    public void writeValue(ColumnValue value)
+        throws IOException
+    {
+        if (value instanceof ColumnValue.IntegerColumnValue)
+        {
+            this.writeInt(((ColumnValue.IntegerColumnValue)value).value);
+        }
+        else if (value instanceof ColumnValue.BooleanColumnValue)
+        {
+            this.writeBoolean(((ColumnValue.BooleanColumnValue)value).value);
+        }
+        else if (value instanceof ColumnValue.StringColumnValue)
+        {
+            this.writeString(((ColumnValue.StringColumnValue)value).value);
+        }
+        else if (value instanceof ColumnValue.EncodedStringColumnValue)
+        {
+            this.writeString(value.getStringValue());
+        }
+        else if (value instanceof ColumnValue.ReferenceColumnValue && ((ColumnValue.ReferenceColumnValue)value).isResolved() && !((ColumnValue.ReferenceColumnValue)value).isNull())
+        {
+            this.writePsvIdentifier(((ColumnValue.ReferenceColumnValue)value).value);
+        }
+        else
+        {
+            this.writeString(value.getStringValue());
+        }
+    }
+    
+    public void writePsvIdentifier(Row row)
+        throws IOException
+    {
+        Table table = row.table;
+        if (table.needsPsvIdTableName) { this.writeString(table.name); }
+        if (table.needsPsvIdListOpener) { this.writeByte((byte)Table.KEY_LIST_OPENER_CHAR); }
+        ColumnValue[] keyValues = row.key.values;
+        for (int i = 0; i < keyValues.length; ++i)
+        {
+            if (i > 0) { this.writeByte((byte)Table.KEY_LIST_SEPARATOR_CHAR); }
+            this.writeValue(keyValues[i]);
+        }
+        if (table.needsPsvIdListOpener) { this.writeByte((byte)Table.KEY_LIST_CLOSER_CHAR); }
+    }
+    
+    public void writeBoolean(boolean value)
+        throws IOException
+    {
+        this.writeBytes(value ? TRUE_BYTES : FALSE_BYTES);
+    }
+    
+    public void writeInt(int value)
+        throws IOException
+    {
+        if (value == Integer.MIN_VALUE)
+        {
+            this.writeBytes(MIN_INT_BYTES);
+            return;
+        }
+        if (value < 0)
+        {
+            this.writeByte((byte)'-');
+            value = -value;
+        }
+        int digitCount = 0;
+        do
+        {
+            this.digits[digitCount++] = (byte)('0' + value % 10);
+            value /= 10;
+        }
+        while (value != 0);
+        this.ensureRemaining(digitCount);
+        while (digitCount > 0)
+        {
+            this.buffer.put(this.digits[--digitCount]);
+        }
+    }
+    
+    public void writeString(CharSequence value)
+        throws IOException
+    {
+        int length = value.length();
+        for (int i = 0; i < length; ++i)
+        {
+            this.ensureRemaining(4);
+            char c = value.charAt(i);
+            if (c < 0x80)
+            {
+                this.buffer.put((byte)c);
+            }
+            else if (c < 0x800)
+            {
+                this.buffer.put((byte)(0xC0 | (c >> 6)));
+                this.buffer.put((byte)(0x80 | (c & 0x3F)));
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1)))
+            {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                this.buffer.put((byte)(0xF0 | (codePoint >> 18)));
+                this.buffer.put((byte)(0x80 | ((codePoint >> 12) & 0x3F)));
+                this.buffer.put((byte)(0x80 | ((codePoint >> 6) & 0x3F)));
+                this.buffer.put((byte)(0x80 | (codePoint & 0x3F)));
+            }
+            else if (Character.isSurrogate(c))
+            {
+                this.buffer.put((byte)'?');
+            }
+            else
+            {
+                this.buffer.put((byte)(0xE0 | (c >> 12)));
+                this.buffer.put((byte)(0x80 | ((c >> 6) & 0x3F)));
+                this.buffer.put((byte)(0x80 | (c & 0x3F)));
+            }
+        }
+    }
+    
+    private void writeByte(byte b)
+        throws IOException
+    {
+        this.ensureRemaining(1);
+        this.buffer.put(b);
+    }
+    
+    private void writeBytes(byte[] bytes)
+        throws IOException
+    {
+        this.ensureRemaining(bytes.length);
+        this.buffer.put(bytes);
+    }
+    
+    private void ensureRemaining(int byteCount)
+        throws IOException
+    {
+        if (this.buffer.remaining() < byteCount) { this.flushBuffer(); }
+    }
+    
+    private void flushBuffer()
+        throws IOException
+    {
+        ((Buffer)this.buffer).flip();
+        while (this.buffer.hasRemaining())
+        {
+            this.channel.write(this.buffer);
+        }
+        ((Buffer)this.buffer).clear();
+    }
+    
+    public void flush()
+        throws IOException
+    {
+        this.flushBuffer();
+    }
+    
+    @Override
+    public void close()
+        throws IOException
+    {
+        try
+        {
+            this.flushBuffer();
+        }
+        finally
+        {
+            this.channel.close();
+        }
+    }
+}
\ No newline at end of file
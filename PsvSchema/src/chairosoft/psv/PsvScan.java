@@ -0,0 +1,344 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * PsvScan.java
+ * PsvScan class definition
+ */
+
+package chairosoft.psv;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A filtered, projected scan over a {@link MappedPsvRecordSet}. Each line
+ * is scanned once for delimiters, remembering only the bounds of the
+ * fields that are projected or filtered on; the filters are then tested
+ * directly against the mapped bytes, and only lines that pass have their
+ * projected fields decoded into a {@link PsvRecord}. Fields that are
+ * neither projected nor filtered on are never turned into Strings.
+ * <pre>
+ * PsvScan scan = new PsvScan(PsvRecordSet.map(file, 0), "id", "name")
+ *     .where("status", PsvScan.FieldPredicate.equalTo("open"))
+ *     .where("amount", PsvScan.FieldPredicate.intBetween(10, 100));
+ * for (PsvRecord record : scan) { ... }
+ * </pre>
+ */
+public class PsvScan implements Iterable<PsvRecord>
+{
+    // fields
+    public final MappedPsvRecordSet source;
+    public final PsvRecord projectedHeader;
+    private final int[] projectedColumnIndexes;
+    private final List<Condition> conditions = new ArrayList<>();
+    private int lastNeededColumnIndex = -1;
+    
+    // constructor
+    public PsvScan(MappedPsvRecordSet _source, String... projectedColumnNames)
+    {
+        this.source = _source;
+        this.projectedColumnIndexes = new int[projectedColumnNames.length];
+        for (int i = 0; i < projectedColumnNames.length; ++i)
+        {
+            this.projectedColumnIndexes[i] = this.requireColumnIndex(projectedColumnNames[i]);
+            this.lastNeededColumnIndex = Math.max(this.lastNeededColumnIndex, this.projectedColumnIndexes[i]);
+        }
+        this.projectedHeader = new PsvRecord(projectedColumnNames.clone());
+    }
+    
+    // instance methods
+    private int requireColumnIndex(String columnName)
+    {
+        String[] headerValues = this.source.headerRecord.values;
+        for (int i = 0; i < headerValues.length; ++i)
+        {
+            if (headerValues[i].equals(columnName)) { return i; }
+        }
+        String message = String.format("File %s has no column named (%s).", this.source.file, columnName);
+        throw new IllegalArgumentException(message);
+    }
+    
+    public PsvScan where(String columnName, FieldPredicate predicate)
+    {
+        int columnIndex = this.requireColumnIndex(columnName);
+        this.conditions.add(new Condition(columnIndex, predicate));
+        this.lastNeededColumnIndex = Math.max(this.lastNeededColumnIndex, columnIndex);
+        return this;
+    }
+    
+    @Override
+    public Iterator<PsvRecord> iterator()
+    {
+        return new ScanIterator();
+    }
+    
+    public Stream<PsvRecord> stream()
+    {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this.iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+    
+    public PsvRecordSet toPsvRecordSet()
+    {
+        ArrayList<PsvRecord> records = new ArrayList<>();
+        for (PsvRecord record : this)
+        {
+            records.add(record);
+        }
+        return new PsvRecordSet(this.projectedHeader, records);
+    }
+    
+    public long count()
+    {
+        long result = 0;
+        for (Iterator<PsvRecord> iterator = new ScanIterator(false); iterator.hasNext(); iterator.next())
+        {
+            ++result;
+        }
+        return result;
+    }
+    
+    
+    // inner classes
+    private class ScanIterator implements Iterator<PsvRecord>
+    {
+        // fields
+        private final boolean isDecoding;
+        private final int[] fieldStarts = new int[PsvScan.this.lastNeededColumnIndex + 1];
+        private final int[] fieldEnds = new int[PsvScan.this.lastNeededColumnIndex + 1];
+        private int segmentIndex = 0;
+        private int position = PsvScan.this.source.bodyStart;
+        private long lineNumber = 1;
+        private PsvRecord nextRecord = null;
+        private boolean hasNextRecord = false;
+        
+        // constructors
+        public ScanIterator() { this(true); }
+        public ScanIterator(boolean _isDecoding) { this.isDecoding = _isDecoding; }
+        
+        // instance methods
+        @Override
+        public boolean hasNext()
+        {
+            MappedByteBuffer[] segments = PsvScan.this.source.segments;
+            while (!this.hasNextRecord)
+            {
+                while (this.segmentIndex < segments.length && this.position >= segments[this.segmentIndex].limit())
+                {
+                    ++this.segmentIndex;
+                    this.position = 0;
+                }
+                if (this.segmentIndex >= segments.length) { return false; }
+                
+                ByteBuffer segment = segments[this.segmentIndex];
+                int lineStart = this.position;
+                ++this.lineNumber;
+                try
+                {
+                    this.hasNextRecord = this.scanLine(segment, lineStart);
+                }
+                catch (Exception ex)
+                {
+                    throw MappedPsvRecordSet.lineError(PsvScan.this.source.file, this.lineNumber, ex);
+                }
+            }
+            return true;
+        }
+        
+        private boolean scanLine(ByteBuffer segment, int lineStart)
+        {
+            int expectedValueCount = PsvScan.this.source.headerRecord.values.length;
+            int lastNeeded = PsvScan.this.lastNeededColumnIndex;
+            int limit = segment.limit();
+            int fieldIndex = 0;
+            int fieldStart = lineStart;
+            int i = lineStart;
+            for (; i < limit; ++i)
+            {
+                byte b = segment.get(i);
+                if (b == MappedPsvRecordSet.LINE_DELIMITER_BYTE) { break; }
+                if (b != MappedPsvRecordSet.VALUE_DELIMITER_BYTE) { continue; }
+                if (fieldIndex <= lastNeeded)
+                {
+                    this.fieldStarts[fieldIndex] = fieldStart;
+                    this.fieldEnds[fieldIndex] = i;
+                }
+                ++fieldIndex;
+                fieldStart = i + 1;
+            }
+            this.position = i + 1;
+            int lineEnd = MappedPsvRecordSet.trimLineEnd(segment, fieldStart, i);
+            if (fieldIndex <= lastNeeded)
+            {
+                this.fieldStarts[fieldIndex] = fieldStart;
+                this.fieldEnds[fieldIndex] = lineEnd;
+            }
+            if (fieldIndex + 1 != expectedValueCount)
+            {
+                String message = String.format("Line did not have expected number of values. Got %s, expected %s.", fieldIndex + 1, expectedValueCount);
+                throw new IllegalArgumentException(message);
+            }
+            
+            for (Condition condition : PsvScan.this.conditions)
+            {
+                int c = condition.columnIndex;
+                if (!condition.predicate.test(segment, this.fieldStarts[c], this.fieldEnds[c])) { return false; }
+            }
+            if (this.isDecoding)
+            {
+                int[] projected = PsvScan.this.projectedColumnIndexes;
+                String[] values = new String[projected.length];
+                for (int p = 0; p < projected.length; ++p)
+                {
+                    values[p] = PsvScan.this.source.decode(segment, this.fieldStarts[projected[p]], this.fieldEnds[projected[p]]);
+                }
+                this.nextRecord = new PsvRecord(values);
+            }
+            return true;
+        }
+        
+        @Override
+        public PsvRecord next()
+        {
+            if (!this.hasNext()) { throw new NoSuchElementException(); }
+            PsvRecord result = this.nextRecord;
+            this.nextRecord = null;
+            this.hasNextRecord = false;
+            return result;
+        }
+        
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+    
+    
+    // static inner classes
+    private static class Condition
+    {
+        // fields
+        public final int columnIndex;
+        public final FieldPredicate predicate;
+        
+        // constructor
+        public Condition(int _columnIndex, FieldPredicate _predicate)
+        {
+            this.columnIndex = _columnIndex;
+            this.predicate = _predicate;
+        }
+    }
+    
+    
+    // inner interfaces
+    /**
+     * A test on the raw bytes of one field, given as the range
+     * [{@code start}, {@code end}) of a mapped segment.
+     */
+    @FunctionalInterface
+    public interface FieldPredicate
+    {
+        boolean test(ByteBuffer segment, int start, int end);
+        
+        default FieldPredicate and(FieldPredicate that) { return (s, start, end) -> this.test(s, start, end) && that.test(s, start, end); }
+        default FieldPredicate or(FieldPredicate that) { return (s, start, end) -> this.test(s, start, end) || that.test(s, start, end); }
+        default FieldPredicate negate() { return (s, start, end) -> !this.test(s, start, end); }
+        
+        static FieldPredicate isEmpty()
+        {
+            return (s, start, end) -> start == end;
+        }
+        
+        static FieldPredicate equalTo(String literal)
+        {
+            return FieldPredicate.equalTo(literal.getBytes(PsvRecord.CHARSET));
+        }
+        
+        static FieldPredicate equalTo(byte[] bytes)
+        {
+            return (s, start, end) -> end - start == bytes.length && FieldPredicate.regionMatches(s, start, bytes);
+        }
+        
+        static FieldPredicate startsWith(String prefix)
+        {
+            byte[] bytes = prefix.getBytes(PsvRecord.CHARSET);
+            return (s, start, end) -> end - start >= bytes.length && FieldPredicate.regionMatches(s, start, bytes);
+        }
+        
+        static FieldPredicate intEqualTo(int value)
+        {
+            return (s, start, end) -> FieldPredicate.parseInt(s, start, end) == value;
+        }
+        
+        static FieldPredicate intBetween(int minInclusive, int maxInclusive)
+        {
+            return (s, start, end) ->
+            {
+                int value = FieldPredicate.parseInt(s, start, end);
+                return minInclusive <= value && value <= maxInclusive;
+            };
+        }
+        
+        /** Decodes the field as UTF-8 and tests the resulting String. */
+        static FieldPredicate matching(Predicate<String> predicate)
+        {
+            return (s, start, end) ->
+            {
+                byte[] bytes = new byte[end - start];
+                for (int i = 0; i < bytes.length; ++i) { bytes[i] = s.get(start + i); }
+                return predicate.test(new String(bytes, PsvRecord.CHARSET));
+            };
+        }
+        
+        static boolean regionMatches(ByteBuffer segment, int start, byte[] bytes)
+        {
+            for (int i = 0; i < bytes.length; ++i)
+            {
+                if (segment.get(start + i) != bytes[i]) { return false; }
+            }
+            return true;
+        }
+        
+        /** Parses a decimal int the way {@link Integer#parseInt(String)} does, without building a String. */
+        static int parseInt(ByteBuffer segment, int start, int end)
+        {
+            int i = start;
+            boolean isNegative = false;
+            if (i < end && (segment.get(i) == '-' || segment.get(i) == '+'))
+            {
+                isNegative = segment.get(i) == '-';
+                ++i;
+            }
+            if (i == end)
+            {
+                throw new NumberFormatException(String.format("Field at bytes %s to %s is not an integer.", start, end));
+            }
+            long result = 0;
+            for (; i < end; ++i)
+            {
+                int digit = segment.get(i) - '0';
+                if (digit < 0 || digit > 9 || (result = result * 10 + digit) > 1L + Integer.MAX_VALUE)
+                {
+                    throw new NumberFormatException(String.format("Field at bytes %s to %s is not an integer.", start, end));
+                }
+            }
+            result = isNegative ? -result : result;
+            if (result > Integer.MAX_VALUE)
+            {
+                throw new NumberFormatException(String.format("Field at bytes %s to %s is not an integer.", start, end));
+            }
+            return (int)result;
+        }
+    }
+}
\ No newline at end of file
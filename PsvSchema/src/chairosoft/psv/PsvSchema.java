@@ -90,9 +90,139 @@ public class PsvSchema
         }
     }
     
-    public static String getValueParseStatement(String typeName, String originalValueExpression, String columnValueExpression)
+    /**
+     * Expression that parses the value between {@code __start} and
+     * {@code __end} of {@code __line}. An empty reference parses as null,
+     * which the generated row holds as a null {@link ColumnValue.ReferenceColumnValue}.
+     */
+    public static String getValueParseExpression(String typeName)
+    {
+        switch (typeName)
+        {
+            case "Boolean": return "PsvRecord.parseBoolean(__line, __start, __end)";
+            case "Integer": return "PsvRecord.parseInt(__line, __start, __end)";
+            case "String": return "__line.substring(__start, __end)";
+            default: return String.format("(__start == __end) ? null : %s.get(__line.substring(__start, __end))", typeName);
+        }
+    }
+    
+    /** Statement that appends the value of {@code fieldExpression} to {@code __out}. */
+    public static String getValueAppendStatement(String typeName, String fieldExpression)
+    {
+        switch (typeName)
+        {
+            case "Boolean": 
+            case "Integer": return String.format("__out.append(%s);", fieldExpression);
+            case "String": return String.format("if (%1$s != null) { __out.append(%1$s); }", fieldExpression);
+            default: return String.format("if (%1$s != null) { %1$s.appendPsvIdentifier(__out); }", fieldExpression);
+        }
+    }
+    
+    public static String getColumnValueExpression(String typeName, String fieldExpression)
+    {
+        switch (typeName)
+        {
+            case "Boolean": return String.format("new ColumnValue.BooleanColumnValue(%s)", fieldExpression);
+            case "Integer": return String.format("new ColumnValue.IntegerColumnValue(%s)", fieldExpression);
+            case "String": return String.format("new ColumnValue.StringColumnValue(%s)", fieldExpression);
+            default: return String.format("new ColumnValue.ReferenceColumnValue(%2$s.TABLE, (%1$s == null) ? null : %1$s.getRow())", fieldExpression, typeName);
+        }
+    }
+    
+    /** Condition that value {@code valueIndex} of {@code this.__row} still matches {@code fieldExpression}. */
+    public static String getValueCurrentExpression(String typeName, int valueIndex, String fieldExpression)
+    {
+        switch (typeName)
+        {
+            case "Boolean": return String.format("((ColumnValue.BooleanColumnValue)this.__row.getValue(%s)).value == %s", valueIndex, fieldExpression);
+            case "Integer": return String.format("((ColumnValue.IntegerColumnValue)this.__row.getValue(%s)).value == %s", valueIndex, fieldExpression);
+            case "String": return String.format("Objects.equals(this.__row.getValue(%s).getStringValue(), %s)", valueIndex, fieldExpression);
+            default: return String.format("((%2$s == null) ? ((ColumnValue.ReferenceColumnValue)this.__row.getValue(%1$s)).isNull() : ((ColumnValue.ReferenceColumnValue)this.__row.getValue(%1$s)).value == %2$s.getRow())", valueIndex, fieldExpression);
+        }
+    }
+    
+    public static boolean isReferenceType(String typeName)
+    {
+        switch (typeName)
+        {
+            case "Boolean": 
+            case "Integer": 
+            case "String": return false;
+            default: return true;
+        }
+    }
+    
+    public static String getKeyFieldType(String typeName)
     {
-        return String.format("%s.parseInto(%s, %s);", getColumnType(typeName), originalValueExpression, columnValueExpression);
+        return getValidType(typeName);
+    }
+    
+    /** Hash of one key field; reference key fields hash (and compare) by the identity of the registered object. */
+    public static String getKeyHashExpression(String typeName, String fieldExpression)
+    {
+        switch (typeName)
+        {
+            case "Boolean": return String.format("(%s ? 1231 : 1237)", fieldExpression);
+            case "Integer": return fieldExpression;
+            case "String": return String.format("((%1$s == null) ? 0 : %1$s.hashCode())", fieldExpression);
+            default: return String.format("System.identityHashCode(%s)", fieldExpression);
+        }
+    }
+    
+    public static String getKeyEqualsExpression(String typeName, String fieldExpression, String thatFieldExpression)
+    {
+        switch (typeName)
+        {
+            case "String": return String.format("((%1$s == null) ? %2$s == null : %1$s.equals(%2$s))", fieldExpression, thatFieldExpression);
+            default: return String.format("%s == %s", fieldExpression, thatFieldExpression);
+        }
+    }
+    
+    /** Expression that parses one key literal of a PSV identifier. */
+    public static String getKeyLiteralParseExpression(String typeName, String literalExpression)
+    {
+        switch (typeName)
+        {
+            case "Boolean": return String.format("Boolean.parseBoolean(%s)", literalExpression);
+            case "Integer": return String.format("Integer.parseInt(%s)", literalExpression);
+            case "String": return literalExpression;
+            default: return String.format("%s.get(%s)", typeName, literalExpression);
+        }
+    }
+    
+    /**
+     * Gets the names of a table and all of its ancestors, root first.
+     */
+    public static List<String> getTableLineage(String tableName, Map<String, List<PsvSchemaRecord>> recordsByTableName)
+    {
+        ArrayList<String> result = new ArrayList<>();
+        for (String name = tableName; !name.equals(ABSTRACT_SCHEMA_OBJECT_NAME); name = recordsByTableName.get(name).get(0).parentTableName)
+        {
+            if (!recordsByTableName.containsKey(name))
+            {
+                String message = String.format("Table (%s) has an undefined ancestor table (%s).", tableName, name);
+                throw new IllegalArgumentException(message);
+            }
+            if (result.contains(name))
+            {
+                String message = String.format("Table (%s) is its own ancestor.", name);
+                throw new IllegalArgumentException(message);
+            }
+            result.add(0, name);
+        }
+        return result;
+    }
+    
+    /**
+     * Gets the (non-blank) columns of a table, including inherited ones, 
+     * in the same order as the columns of the generated table.
+     */
+    public static List<PsvSchemaRecord> getAllColumns(String tableName, Map<String, List<PsvSchemaRecord>> recordsByTableName)
+    {
+        return getTableLineage(tableName, recordsByTableName).stream()
+            .flatMap(name -> recordsByTableName.get(name).stream())
+            .filter(r -> r.columnName.length() > 0)
+            .collect(Collectors.toList());
     }
     
     public static final String ABSTRACT_SCHEMA_OBJECT_NAME = "AbstractSchemaObject";
@@ -120,8 +250,8 @@ public class PsvSchema
                 r.isExtendable, 
                 nonKeywordOf(r.tableName), 
                 nonKeywordOf(r.parentTableName, ABSTRACT_SCHEMA_OBJECT_NAME),
-                nonKeywordOf(r.columnName),
-                getValidType(r.type),
+                r.columnName,
+                nonKeywordOf(r.type),
                 r.isPartOfPrimaryKey,
                 r.isRequired
             ))
@@ -146,6 +276,20 @@ public class PsvSchema
             out.indentln("");
             out.indentln("import chairosoft.psv.*;");
             out.indentln("");
+            out.indentln("import java.io.BufferedReader;");
+            out.indentln("import java.io.BufferedWriter;");
+            out.indentln("import java.io.File;");
+            out.indentln("import java.io.FileInputStream;");
+            out.indentln("import java.io.FileOutputStream;");
+            out.indentln("import java.io.IOException;");
+            out.indentln("import java.io.InputStreamReader;");
+            out.indentln("import java.io.OutputStreamWriter;");
+            out.indentln("import java.io.Writer;");
+            out.indentln("import java.util.ArrayList;");
+            out.indentln("import java.util.LinkedHashMap;");
+            out.indentln("import java.util.Map;");
+            out.indentln("import java.util.Objects;");
+            out.indentln("");
             out.indentln("public final class Schema");
             out.indentln("{");
             out.tabIn();
@@ -156,11 +300,107 @@ public class PsvSchema
                 out.tabIn();
                 {
                     out.indentln("protected Row __row = null;");
-                    out.indentln("public Row getRow() { this.syncRow(); return this.__row; }");
-                    out.indentln("protected abstract void syncRow();");
-                    // out.indentln("");
-                    // String abstractSchemaObjectConstructor = String.format("protected %s() { this.__row = TODO; }", ABSTRACT_SCHEMA_OBJECT_NAME);
-                    // out.indentln(abstractSchemaObjectConstructor);
+                    out.indentln("private boolean __isSyncingRow = false;");
+                    out.indentln("");
+                    out.indentln("/**");
+                    out.indentln(" * Gets this object as a generic row. The row is cached and only rebuilt");
+                    out.indentln(" * when a field (or a referenced object's row) has changed since it was");
+                    out.indentln(" * built, so its identity is stable while the object is unchanged.");
+                    out.indentln(" */");
+                    out.indentln("public Row getRow()");
+                    out.indentln("{");
+                    out.tabIn();
+                    {
+                        out.indentln("if (this.__isSyncingRow) { return this.__row; }");
+                        out.indentln("this.__isSyncingRow = true;");
+                        out.indentln("try");
+                        out.indentln("{");
+                        out.indentln("	if (this.__row == null || !this.isRowCurrent()) { this.__row = this.buildRow(); }");
+                        out.indentln("}");
+                        out.indentln("finally");
+                        out.indentln("{");
+                        out.indentln("	this.__isSyncingRow = false;");
+                        out.indentln("}");
+                        out.indentln("return this.__row;");
+                    }
+                    out.tabOut();
+                    out.indentln("}");
+                    out.indentln("protected abstract boolean isRowCurrent();");
+                    out.indentln("protected abstract Row buildRow();");
+                    out.indentln("");
+                    out.indentln("/** Sets every field from one PSV line of this object's table, resolving references immediately. */");
+                    out.indentln("public void readPsvLine(String __line) { this.readPsvLine(__line, null); }");
+                    out.indentln("/**");
+                    out.indentln(" * Sets every field from one PSV line of this object's table. References");
+                    out.indentln(" * that are not part of the primary key are left null and added to");
+                    out.indentln(" * {@code __deferred} (when it is not null) to be resolved later.");
+                    out.indentln(" */");
+                    out.indentln("public abstract void readPsvLine(String __line, DeferredReferences __deferred);");
+                    out.indentln("/** Appends this object as a PSV line of its table, without the line delimiter. */");
+                    out.indentln("public abstract StringBuilder appendPsvLine(StringBuilder __out);");
+                    out.indentln("public abstract StringBuilder appendPsvIdentifier(StringBuilder __out);");
+                    out.indentln("/** Puts this object in its table's primary key map, replacing any object with the same key. */");
+                    out.indentln("public abstract void register();");
+                    out.indentln("");
+                    out.indentln("public String getPsvIdentifier() { return this.appendPsvIdentifier(new StringBuilder()).toString(); }");
+                    out.indentln("");
+                    out.indentln("public void writePsvLine(Writer __writer)");
+                    out.indentln("\tthrows IOException");
+                    out.indentln("{");
+                    out.indentln("\t__writer.append(this.appendPsvLine(new StringBuilder()).append(PsvRecord.LINE_DELIMITER));");
+                    out.indentln("}");
+                    out.indentln("");
+                    out.indentln("protected static IllegalStateException lineError(File __file, int __lineNumber, Exception __cause)");
+                    out.indentln("{");
+                    out.indentln("\tString __message = String.format(\"Error in line %s of file %s.\", __lineNumber, __file);");
+                    out.indentln("\treturn new IllegalStateException(__message, __cause);");
+                    out.indentln("}");
+                }
+                out.tabOut();
+                out.indentln("}");
+                out.indentln("");
+                out.indentln("/**");
+                out.indentln(" * References read from a file that are resolved only after the whole");
+                out.indentln(" * file is registered, so a row can refer to its own table, including rows");
+                out.indentln(" * later in the file. References to other tables still need those tables");
+                out.indentln(" * to be loaded first.");
+                out.indentln(" */");
+                out.indentln("public static final class DeferredReferences");
+                out.indentln("{");
+                out.tabIn();
+                {
+                    out.indentln("private final ArrayList<Runnable> resolvers = new ArrayList<>();");
+                    out.indentln("private final ArrayList<Integer> lineNumbers = new ArrayList<>();");
+                    out.indentln("private int lineNumber = 0;");
+                    out.indentln("");
+                    out.indentln("public void setLineNumber(int __lineNumber) { this.lineNumber = __lineNumber; }");
+                    out.indentln("");
+                    out.indentln("public void add(Runnable __resolver)");
+                    out.indentln("{");
+                    out.indentln("\tthis.resolvers.add(__resolver);");
+                    out.indentln("\tthis.lineNumbers.add(this.lineNumber);");
+                    out.indentln("}");
+                    out.indentln("");
+                    out.indentln("public void resolveAll(File __file)");
+                    out.indentln("{");
+                    out.tabIn();
+                    {
+                        out.indentln("for (int __i = 0; __i < this.resolvers.size(); ++__i)");
+                        out.indentln("{");
+                        out.indentln("\ttry");
+                        out.indentln("\t{");
+                        out.indentln("\t\tthis.resolvers.get(__i).run();");
+                        out.indentln("\t}");
+                        out.indentln("\tcatch (RuntimeException __ex)");
+                        out.indentln("\t{");
+                        out.indentln(String.format("\t\tthrow %s.lineError(__file, this.lineNumbers.get(__i), __ex);", ABSTRACT_SCHEMA_OBJECT_NAME));
+                        out.indentln("\t}");
+                        out.indentln("}");
+                        out.indentln("this.resolvers.clear();");
+                        out.indentln("this.lineNumbers.clear();");
+                    }
+                    out.tabOut();
+                    out.indentln("}");
                 }
                 out.tabOut();
                 out.indentln("}");
@@ -173,13 +413,23 @@ public class PsvSchema
                 PsvSchemaRecord[] escapedRecords = records.stream()
                     .toArray(PsvSchemaRecord[]::new);
                 PsvSchemaRecord[] nonBlankEscapedRecords = Stream.of(escapedRecords)
-                    .filter(r -> nonKeywordOf(r.columnName).length() > 0)
+                    .filter(r -> r.columnName.length() > 0)
                     .toArray(PsvSchemaRecord[]::new);
                 PsvSchemaRecord schemaRecord = escapedRecords[0];
                 String finalDescriptor = schemaRecord.isExtendable ? "" : " final";
                 String className = schemaRecord.tableName;
                 String parentName = schemaRecord.parentTableName; 
                 boolean hasParent = !parentName.equals(ABSTRACT_SCHEMA_OBJECT_NAME);
+                List<PsvSchemaRecord> allColumns = getAllColumns(className, psvSchemaRecordsByTableName);
+                List<PsvSchemaRecord> keyColumns = allColumns.stream()
+                    .filter(r -> r.isPartOfPrimaryKey)
+                    .collect(Collectors.toList());
+                boolean needsPsvIdTableName = hasParent || schemaRecord.isExtendable;
+                boolean needsPsvIdListOpener = needsPsvIdTableName || keyColumns.size() > 1;
+                List<String> descendants = tableNames.stream()
+                    .filter(name -> !name.equals(className) && getTableLineage(name, psvSchemaRecordsByTableName).contains(className))
+                    .collect(Collectors.toList());
+                
                 String classDeclaration = String.format("public static%s class %s extends %s", finalDescriptor, className, parentName);
                 out.indentln(classDeclaration);
                 out.indentln("{");
@@ -193,7 +443,7 @@ public class PsvSchema
                     {
                         PsvSchemaRecord escaped = nonBlankEscapedRecords[i];
                         String comma = ((i + 1) == nonBlankEscapedRecords.length) ? "" : ",";
-                        String columnType = getColumnType(escapedRecords[1].type);
+                        String columnType = getColumnType(escaped.type);
                         String columnInstantiation = String.format("new Column(\"%s\", %s, %s, %s)%s", escaped.columnName, columnType, escaped.isPartOfPrimaryKey, escaped.isRequired, comma);
                         out.indentln(columnInstantiation);
                     }
@@ -203,51 +453,364 @@ public class PsvSchema
                     }
                     out.tabOut();
                     out.indentln("});");
-                    String typeDeclaration = String.format("public static final ReferenceColumnType TYPE = new ReferenceColumnType(%s.TABLE);", className);
+                    String typeDeclaration = String.format("public static final ColumnType.ReferenceColumnType TYPE = new ColumnType.ReferenceColumnType(%s.TABLE);", className);
                     out.indentln(typeDeclaration);
+                    String psvHeader = allColumns.stream()
+                        .map(r -> r.columnName)
+                        .collect(Collectors.joining(String.valueOf(PsvRecord.VALUE_DELIMITER)));
+                    out.indentln(String.format("public static final String PSV_HEADER = \"%s\";", psvHeader));
+                    out.indentln(String.format("protected static final Map<%1$s.Key, %1$s> BY_KEY = new LinkedHashMap<>();", className));
                     out.indentln("");
                 }
                 for (PsvSchemaRecord escaped : nonBlankEscapedRecords)
                 {
-                    String memberDeclaration = String.format("public %s %s;", escaped.type, escaped.columnName);
+                    String memberDeclaration = String.format("public %s %s;", getValidType(escaped.type), nonKeywordOf(escaped.columnName));
                     out.indentln(memberDeclaration);
                 }
                 {
                     out.indentln("");
+                    String defaultConstructorDeclaration = String.format("public %s()", className);
+                    out.indentln(defaultConstructorDeclaration);
+                    out.indentln("{");
+                    out.indentln("}");
+                    out.indentln("");
                     
-                    List<PsvSchemaRecord> allColumns = new List<>();
-                    // for (PsvSchemaRecord = schemaRecord
+                    // primary key class
+                    out.indentln(String.format("/** Primary key of table %s. */", className));
+                    out.indentln("public static final class Key");
+                    out.indentln("{");
+                    out.tabIn();
+                    {
+                        for (PsvSchemaRecord column : keyColumns)
+                        {
+                            out.indentln(String.format("public final %s %s;", getKeyFieldType(column.type), nonKeywordOf(column.columnName)));
+                        }
+                        out.indentln("private final int __hash;");
+                        out.indentln("");
+                        String keyParameters = keyColumns.stream()
+                            .map(r -> String.format("%s __%s", getKeyFieldType(r.type), nonKeywordOf(r.columnName)))
+                            .collect(Collectors.joining(", "));
+                        out.indentln(String.format("public Key(%s)", keyParameters));
+                        out.indentln("{");
+                        out.tabIn();
+                        {
+                            out.indentln("int __h = 0;");
+                            for (PsvSchemaRecord column : keyColumns)
+                            {
+                                String fieldName = nonKeywordOf(column.columnName);
+                                out.indentln(String.format("this.%1$s = __%1$s;", fieldName));
+                                out.indentln(String.format("__h = 31 * __h + %s;", getKeyHashExpression(column.type, "this." + fieldName)));
+                            }
+                            out.indentln("this.__hash = __h;");
+                        }
+                        out.tabOut();
+                        out.indentln("}");
+                        out.indentln("");
+                        String objectKeyArguments = keyColumns.stream()
+                            .map(r -> "__object." + nonKeywordOf(r.columnName))
+                            .collect(Collectors.joining(", "));
+                        out.indentln(String.format("public Key(%s __object)", className));
+                        out.indentln("{");
+                        out.indentln(String.format("\tthis(%s);", objectKeyArguments));
+                        out.indentln("}");
+                        out.indentln("");
+                        out.indentln("public static Key parse(String[] __keyLiterals)");
+                        out.indentln("{");
+                        out.tabIn();
+                        {
+                            out.indentln(String.format("if (__keyLiterals.length != %s)", keyColumns.size()));
+                            out.indentln("{");
+                            out.indentln(String.format("\tString __message = String.format(\"Number of key columns (%%s) does not match number of values (%%s) given to table (%%s).\", %s, __keyLiterals.length, \"%s\");", keyColumns.size(), className));
+                            out.indentln("\tthrow new IllegalArgumentException(__message);");
+                            out.indentln("}");
+                            String literalArguments = IntStream.range(0, keyColumns.size())
+                                .mapToObj(i -> getKeyLiteralParseExpression(keyColumns.get(i).type, String.format("__keyLiterals[%s]", i)))
+                                .collect(Collectors.joining(", "));
+                            out.indentln(String.format("return new Key(%s);", literalArguments));
+                        }
+                        out.tabOut();
+                        out.indentln("}");
+                        out.indentln("");
+                        out.indentln("@Override public int hashCode() { return this.__hash; }");
+                        String keyDescription = keyColumns.stream()
+                            .map(r -> isReferenceType(r.type)
+                                ? String.format("((this.%1$s == null) ? \"null\" : this.%1$s.getPsvIdentifier())", nonKeywordOf(r.columnName))
+                                : String.format("this.%s", nonKeywordOf(r.columnName)))
+                            .collect(Collectors.joining(" + \", \" + "));
+                        out.indentln(String.format("@Override public String toString() { return \"%s.Key(\" + %s + \")\"; }", className, keyColumns.isEmpty() ? "\"\"" : keyDescription));
+                        out.indentln("");
+                        out.indentln("@Override");
+                        out.indentln("public boolean equals(Object __o)");
+                        out.indentln("{");
+                        out.tabIn();
+                        {
+                            out.indentln("if (__o == this) { return true; }");
+                            out.indentln("if (!(__o instanceof Key)) { return false; }");
+                            out.indentln("Key __that = (Key)__o;");
+                            List<String> conditionLines = new ArrayList<>();
+                            conditionLines.add("return this.__hash == __that.__hash");
+                            for (PsvSchemaRecord column : keyColumns)
+                            {
+                                String fieldName = nonKeywordOf(column.columnName);
+                                conditionLines.add("\t&& " + getKeyEqualsExpression(column.type, "this." + fieldName, "__that." + fieldName));
+                            }
+                            for (int i = 0; i < conditionLines.size(); ++i)
+                            {
+                                String semicolon = ((i + 1) == conditionLines.size()) ? ";" : "";
+                                out.indentln(conditionLines.get(i) + semicolon);
+                            }
+                        }
+                        out.tabOut();
+                        out.indentln("}");
+                    }
+                    out.tabOut();
+                    out.indentln("}");
+                    out.indentln("");
                     
-                    // TODO: figure out how to get all columns (including parent table columns) in a list
+                    // lookups
+                    out.indentln(String.format("public static %1$s findByKey(%1$s.Key __key)", className));
+                    out.indentln("{");
+                    out.indentln(String.format("\treturn %s.BY_KEY.get(__key);", className));
+                    out.indentln("}");
+                    out.indentln("");
+                    out.indentln(String.format("public static %1$s getByKey(%1$s.Key __key)", className));
+                    out.indentln("{");
+                    out.tabIn();
+                    {
+                        out.indentln(String.format("%1$s __result = %1$s.BY_KEY.get(__key);", className));
+                        out.indentln("if (__result == null)");
+                        out.indentln("{");
+                        out.indentln(String.format("\tString __message = %1$s.BY_KEY.isEmpty()", className));
+                        out.indentln(String.format("\t\t? String.format(\"No row in table (%%s) has key (%%s); the table is empty, so it may need to be loaded first.\", \"%s\", __key)", className));
+                        out.indentln(String.format("\t\t: String.format(\"No row in table (%%s) has key (%%s).\", \"%s\", __key);", className));
+                        out.indentln("\tthrow new IllegalArgumentException(__message);");
+                        out.indentln("}");
+                        out.indentln("return __result;");
+                    }
+                    out.tabOut();
+                    out.indentln("}");
+                    out.indentln("");
+                    out.indentln("/** Finds the object with the given PSV identifier, which may name a subtable of this table. */");
+                    out.indentln(String.format("public static %s get(String __psvIdentifier)", className));
+                    out.indentln("{");
+                    out.tabIn();
+                    {
+                        out.indentln(String.format("Table.PsvIdentifier __parsed = %s.TABLE.parsePsvIdentifier(__psvIdentifier);", className));
+                        for (String descendant : descendants)
+                        {
+                            out.indentln(String.format("if (__parsed.table == %1$s.TABLE) { return %1$s.getByKey(%1$s.Key.parse(__parsed.keyLiterals)); }", descendant));
+                        }
+                        out.indentln(String.format("return %1$s.getByKey(%1$s.Key.parse(__parsed.keyLiterals));", className));
+                    }
+                    out.tabOut();
+                    out.indentln("}");
+                    out.indentln("");
                     
+                    // static parse and file methods
+                    out.indentln(String.format("public static %s parsePsvLine(String __line)", className));
+                    out.indentln("{");
+                    out.indentln(String.format("\treturn %s.parsePsvLine(__line, null);", className));
+                    out.indentln("}");
+                    out.indentln("");
+                    out.indentln(String.format("public static %s parsePsvLine(String __line, DeferredReferences __deferred)", className));
+                    out.indentln("{");
+                    out.indentln(String.format("\t%1$s __result = new %1$s();", className));
+                    out.indentln("\t__result.readPsvLine(__line, __deferred);");
+                    out.indentln("\treturn __result;");
+                    out.indentln("}");
+                    out.indentln("");
+                    out.indentln("/**");
+                    out.indentln(" * Parses and registers every line of a PSV file of this table. References");
+                    out.indentln(" * to this table (outside the primary key) are resolved after the whole");
+                    out.indentln(" * file is registered; tables referenced from other tables, and from key");
+                    out.indentln(" * columns, must be loaded before this one.");
+                    out.indentln(" */");
+                    out.indentln("public static int load(File __file)");
+                    out.indentln("\tthrows IOException");
+                    out.indentln("{");
+                    out.tabIn();
+                    {
+                        out.indentln("int __count = 0;");
+                        out.indentln("DeferredReferences __deferred = new DeferredReferences();");
+                        out.indentln("try (BufferedReader __reader = new BufferedReader(new InputStreamReader(new FileInputStream(__file), PsvRecord.CHARSET)))");
+                        out.indentln("{");
+                        out.tabIn();
+                        {
+                            out.indentln("String __line = __reader.readLine();");
+                            out.indentln(String.format("if (!%s.PSV_HEADER.equals(__line))", className));
+                            out.indentln("{");
+                            out.indentln(String.format("\tthrow lineError(__file, 1, new IllegalArgumentException(String.format(\"Header (%%s) does not match table (%%s).\", __line, \"%s\")));", className));
+                            out.indentln("}");
+                            out.indentln("while ((__line = __reader.readLine()) != null)");
+                            out.indentln("{");
+                            out.indentln("\t__deferred.setLineNumber(__count + 2);");
+                            out.indentln("\ttry");
+                            out.indentln("\t{");
+                            out.indentln(String.format("\t\t%s.parsePsvLine(__line, __deferred).register();", className));
+                            out.indentln("\t}");
+                            out.indentln("\tcatch (RuntimeException __ex)");
+                            out.indentln("\t{");
+                            out.indentln("\t\tthrow lineError(__file, __count + 2, __ex);");
+                            out.indentln("\t}");
+                            out.indentln("\t++__count;");
+                            out.indentln("}");
+                        }
+                        out.tabOut();
+                        out.indentln("}");
+                        out.indentln("__deferred.resolveAll(__file);");
+                        out.indentln("return __count;");
+                    }
+                    out.tabOut();
+                    out.indentln("}");
+                    out.indentln("");
+                    out.indentln("/** Writes every registered object of this table (not its subtables) to a PSV file. */");
+                    out.indentln("public static int write(File __file)");
+                    out.indentln("\tthrows IOException");
+                    out.indentln("{");
+                    out.tabIn();
+                    {
+                        out.indentln("int __count = 0;");
+                        out.indentln("try (Writer __writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(__file), PsvRecord.CHARSET)))");
+                        out.indentln("{");
+                        out.tabIn();
+                        {
+                            out.indentln(String.format("__writer.append(%s.PSV_HEADER).append(PsvRecord.LINE_DELIMITER);", className));
+                            out.indentln("StringBuilder __out = new StringBuilder();");
+                            out.indentln(String.format("for (%1$s __object : %1$s.BY_KEY.values())", className));
+                            out.indentln("{");
+                            out.indentln("\t__out.setLength(0);");
+                            out.indentln("\t__writer.append(__object.appendPsvLine(__out).append(PsvRecord.LINE_DELIMITER));");
+                            out.indentln("\t++__count;");
+                            out.indentln("}");
+                        }
+                        out.tabOut();
+                        out.indentln("}");
+                        out.indentln("return __count;");
+                    }
+                    out.tabOut();
+                    out.indentln("}");
+                    out.indentln("");
                     
+                    // straight-line parser
+                    out.indentln("@Override");
+                    out.indentln("public void readPsvLine(String __line, DeferredReferences __deferred)");
+                    out.indentln("{");
+                    out.tabIn();
+                    {
+                        out.indentln("int __start = 0;");
+                        out.indentln("int __end;");
+                        for (int i = 0; i < allColumns.size(); ++i)
+                        {
+                            PsvSchemaRecord column = allColumns.get(i);
+                            String fieldName = nonKeywordOf(column.columnName);
+                            if (i > 0) { out.indentln("__start = __end + 1;"); }
+                            out.indentln(String.format("__end = PsvRecord.valueEnd(__line, __start, %s, %s);", i, allColumns.size()));
+                            if (!isReferenceType(column.type) || column.isPartOfPrimaryKey)
+                            {
+                                out.indentln(String.format("this.%s = %s;", fieldName, getValueParseExpression(column.type)));
+                                continue;
+                            }
+                            out.indentln("if (__deferred == null || __start == __end)");
+                            out.indentln("{");
+                            out.indentln(String.format("\tthis.%s = %s;", fieldName, getValueParseExpression(column.type)));
+                            out.indentln("}");
+                            out.indentln("else");
+                            out.indentln("{");
+                            out.indentln(String.format("\tString __literal%s = __line.substring(__start, __end);", i));
+                            out.indentln(String.format("\tthis.%s = null;", fieldName));
+                            out.indentln(String.format("\t__deferred.add(() -> this.%s = %s.get(__literal%s));", fieldName, column.type, i));
+                            out.indentln("}");
+                        }
+                    }
+                    out.tabOut();
+                    out.indentln("}");
+                    out.indentln("");
                     
+                    // straight-line writer
+                    out.indentln("@Override");
+                    out.indentln("public StringBuilder appendPsvLine(StringBuilder __out)");
+                    out.indentln("{");
+                    out.tabIn();
+                    {
+                        for (int i = 0; i < allColumns.size(); ++i)
+                        {
+                            PsvSchemaRecord column = allColumns.get(i);
+                            if (i > 0) { out.indentln("__out.append(PsvRecord.VALUE_DELIMITER);"); }
+                            out.indentln(getValueAppendStatement(column.type, "this." + nonKeywordOf(column.columnName)));
+                        }
+                        out.indentln("return __out;");
+                    }
+                    out.tabOut();
+                    out.indentln("}");
+                    out.indentln("");
                     
-                    String defaultConstructorDeclaration = String.format("public %s()", className);
-                    out.indentln(defaultConstructorDeclaration);
+                    // PSV identifier, matching Table.appendPsvIdentifier
+                    out.indentln("@Override");
+                    out.indentln("public StringBuilder appendPsvIdentifier(StringBuilder __out)");
                     out.indentln("{");
                     out.tabIn();
                     {
-                        // out.indentln("this(");
-                        // out.indentln(")");
+                        if (needsPsvIdTableName) { out.indentln(String.format("__out.append(\"%s\");", className)); }
+                        if (needsPsvIdListOpener) { out.indentln("__out.append(Table.KEY_LIST_OPENER_CHAR);"); }
+                        for (int i = 0; i < keyColumns.size(); ++i)
+                        {
+                            PsvSchemaRecord column = keyColumns.get(i);
+                            if (i > 0) { out.indentln("__out.append(Table.KEY_LIST_SEPARATOR_CHAR);"); }
+                            out.indentln(getValueAppendStatement(column.type, "this." + nonKeywordOf(column.columnName)));
+                        }
+                        if (needsPsvIdListOpener) { out.indentln("__out.append(Table.KEY_LIST_CLOSER_CHAR);"); }
+                        out.indentln("return __out;");
                     }
                     out.tabOut();
                     out.indentln("}");
                     out.indentln("");
+                    
+                    // registration in this table's key map
+                    out.indentln("@Override");
+                    out.indentln("public void register()");
+                    out.indentln("{");
+                    out.indentln(String.format("\t%1$s.BY_KEY.put(new %1$s.Key(this), this);", className));
+                    out.indentln("}");
+                    out.indentln("");
+                    
+                    // generic row
                     out.indentln("@Override");
-                    out.indentln("protected void syncRow()");
+                    out.indentln("protected boolean isRowCurrent()");
                     out.indentln("{");
                     out.tabIn();
                     {
-                        out.indentln("base.syncRow();");
+                        List<String> conditionLines = new ArrayList<>();
+                        for (int i = 0; i < allColumns.size(); ++i)
+                        {
+                            PsvSchemaRecord column = allColumns.get(i);
+                            String condition = getValueCurrentExpression(column.type, i, "this." + nonKeywordOf(column.columnName));
+                            conditionLines.add((i == 0) ? "return " + condition : "\t&& " + condition);
+                        }
+                        if (conditionLines.isEmpty()) { conditionLines.add("return true"); }
+                        for (int i = 0; i < conditionLines.size(); ++i)
+                        {
+                            String semicolon = ((i + 1) == conditionLines.size()) ? ";" : "";
+                            out.indentln(conditionLines.get(i) + semicolon);
+                        }
                     }
-                    for (int i = 0; i < nonBlankEscapedRecords.length; ++i)
+                    out.tabOut();
+                    out.indentln("}");
+                    out.indentln("");
+                    out.indentln("@Override");
+                    out.indentln("protected Row buildRow()");
+                    out.indentln("{");
+                    out.tabIn();
                     {
-                        PsvSchemaRecord escaped = nonBlankEscapedRecords[i];
-                        String originalValueExpression = String.format("this.%s", escaped.columnName);
-                        String columnValueExpression = String.format("this.__row.getValue(\"%s\")", records.get(i).columnName);
-                        String valueParseExpression = getValueParseStatement(escaped.type, originalValueExpression, columnValueExpression);
-                        out.indentln(valueParseExpression);
+                        out.indentln(String.format("return new Row(%s.TABLE, new ColumnValue[] {", className));
+                        out.tabIn();
+                        for (int i = 0; i < allColumns.size(); ++i)
+                        {
+                            PsvSchemaRecord column = allColumns.get(i);
+                            String comma = ((i + 1) == allColumns.size()) ? "" : ",";
+                            out.indentln(getColumnValueExpression(column.type, "this." + nonKeywordOf(column.columnName)) + comma);
+                        }
+                        out.tabOut();
+                        out.indentln("});");
                     }
                     out.tabOut();
                     out.indentln("}");
@@ -0,0 +1,106 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * ReferenceBatch.java
+ * ReferenceBatch class definition
+ */
+
+package chairosoft.psv;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Bulk-load mode for references. While a batch is active on a thread,
+ * every {@link ColumnValue.ReferenceColumnValue} parsed on that thread only
+ * records its PSV identifier; {@link #resolve()} then looks all of them up
+ * at once, grouped by target table and spread over the common fork-join
+ * pool. References may therefore point at rows that are loaded later.
+ * <pre>
+ * try (ReferenceBatch batch = ReferenceBatch.begin())
+ * {
+ *     ownerTable.load(ownerFile);
+ *     petTable.load(petFile);
+ *     batch.resolve();
+ * }
+ * </pre>
+ */
+public class ReferenceBatch implements AutoCloseable
+{
+    // static fields
+    private static final ThreadLocal<ReferenceBatch> currentBatch = new ThreadLocal<>();
+    public static ReferenceBatch current() { return ReferenceBatch.currentBatch.get(); }
+    
+    // instance fields
+    private final Map<Table, List<ColumnValue.ReferenceColumnValue>> pendingByTable = new LinkedHashMap<>();
+    private int pendingCount = 0;
+    public final int getPendingCount() { return this.pendingCount; }
+    
+    // constructor
+    private ReferenceBatch() { }
+    
+    // static methods
+    public static ReferenceBatch begin()
+    {
+        if (ReferenceBatch.current() != null)
+        {
+            throw new IllegalStateException("A reference batch is already active on this thread.");
+        }
+        ReferenceBatch result = new ReferenceBatch();
+        ReferenceBatch.currentBatch.set(result);
+        return result;
+    }
+    
+    // instance methods
+    protected void defer(ColumnValue.ReferenceColumnValue reference)
+    {
+        this.pendingByTable.computeIfAbsent(reference.table, t -> new ArrayList<>()).add(reference);
+        ++this.pendingCount;
+    }
+    
+    public void resolve()
+    {
+        boolean isCurrent = ReferenceBatch.current() == this;
+        if (isCurrent) { ReferenceBatch.currentBatch.remove(); }
+        try
+        {
+            ConcurrentLinkedQueue<RuntimeException> failures = new ConcurrentLinkedQueue<>();
+            for (List<ColumnValue.ReferenceColumnValue> references : this.pendingByTable.values())
+            {
+                references.parallelStream().forEach(reference ->
+                {
+                    try { reference.resolve(); }
+                    catch (RuntimeException ex) { failures.add(ex); }
+                });
+            }
+            this.pendingByTable.clear();
+            int pendingCount = this.pendingCount;
+            this.pendingCount = 0;
+            if (!failures.isEmpty())
+            {
+                String message = String.format("%s of %s deferred references could not be resolved.", failures.size(), pendingCount);
+                IllegalStateException ex = new IllegalStateException(message, failures.peek());
+                failures.stream().skip(1).limit(9).forEach(ex::addSuppressed);
+                throw ex;
+            }
+        }
+        finally
+        {
+            if (isCurrent) { ReferenceBatch.currentBatch.set(this); }
+        }
+    }
+    
+    @Override
+    public void close()
+    {
+        if (ReferenceBatch.current() == this)
+        {
+            ReferenceBatch.currentBatch.remove();
+        }
+    }
+}
\ No newline at end of file
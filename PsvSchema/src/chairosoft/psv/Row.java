@@ -9,11 +9,6 @@
 
 package chairosoft.psv;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
-import java.util.stream.Collectors;
 
 public class Row
 {
@@ -21,11 +16,15 @@ public class Row
     public final Table table;
     protected final ColumnValue[] values;
     public final ColumnValue getValue(int i) { return this.values[i]; }
-    protected final Map<String, ColumnValue> valuesByColumnName = new HashMap<>();
-    public final ColumnValue getValue(String columnName) { return this.valuesByColumnName.get(columnName); }
+    public final ColumnValue getValue(String columnName)
+    {
+        int i = this.getValueIndex(columnName);
+        return (i < 0) ? null : this.values[i];
+    }
     protected final Key key;
+    public final Key getKey() { return this.key; }
     
-    // constructor
+    // constructors
     public Row(Table _table, ColumnValue[] _values)
     {
         this.table = _table;
@@ -35,30 +34,33 @@ public class Row
             String message = String.format("Number of columns (%s) does not match number of values (%s) given to Row.", this.table.columns.length, this.values.length);
             throw new IllegalStateException(message);
         }
-        IntStream.range(0, this.values.length)
-            .forEach(i -> this.valuesByColumnName.put(this.table.columns[i].name, this.values[i]));
-        ColumnValue[] keyValues = IntStream.range(0, this.values.length)
-            .filter(i -> this.table.columns[i].isPartOfPrimaryKey)
-            .mapToObj(i -> this.values[i])
-            .toArray(ColumnValue[]::new);
-        Key _key = null;
-        if (keyValues.length < this.values.length)
-        {
-            _key = new Key(this.table, keyValues);
-        }
-        else if (this instanceof Key)
+        int[] keyColumnIndexes = this.table.keyColumnIndexes;
+        ColumnValue[] keyValues = new ColumnValue[keyColumnIndexes.length];
+        for (int i = 0; i < keyValues.length; ++i)
         {
-            _key = (Key)this;
+            keyValues[i] = this.values[keyColumnIndexes[i]];
         }
-        else 
+        this.key = new Key(this.table, keyValues);
+    }
+    
+    protected Row(Table _table, ColumnValue[] _keyValues, boolean isKey)
+    {
+        this.table = _table;
+        this.values = _keyValues;
+        if (this.table.keyColumns.length != this.values.length)
         {
-            String message = String.format("Invalid key. Row values count = %s, key values count = %s, type = %s.", this.values.length, keyValues.length, this.getClass());
+            String message = String.format("Number of key columns (%s) does not match number of values (%s) given to Row.Key.", this.table.keyColumns.length, this.values.length);
             throw new IllegalStateException(message);
         }
-        this.key = _key;
+        this.key = (Key)this;
     }
     
     // instance methods
+    protected int getValueIndex(String columnName)
+    {
+        return this.table.getColumnIndex(columnName);
+    }
+    
     public String getPsvIdentifier() 
     {
         return this.table.getPsvIdentifierFromRow(this);
@@ -66,9 +68,11 @@ public class Row
     
     public PsvRecord toPsvRecord()
     {
-        Stream<String> psvRecordValues = Stream.of(this.values)
-            .map(value -> value.getStringValue());
-        PsvRecord result = new PsvRecord(psvRecordValues);
+        PsvRecord result = new PsvRecord(this.values.length);
+        for (int i = 0; i < this.values.length; ++i)
+        {
+            result.values[i] = this.values[i].getStringValue();
+        }
         return result;
     }
     
@@ -94,16 +98,48 @@ public class Row
     // static inner class
     public static class Key extends Row
     {
+        // fields
+        private final int hash;
+        
         // constructor
-        public Key(Table _table, ColumnValue[] _values) { super(_table, _values); }
+        public Key(Table _table, ColumnValue[] _values) 
+        {
+            super(_table, _values, true);
+            this.hash = Key.hashOf(this.values);
+        }
+        
+        // static methods
+        public static int hashOf(ColumnValue[] keyValues)
+        {
+            int result = 0;
+            for (ColumnValue value : keyValues)
+            {
+                result = 37 * result + value.hashCode();
+            }
+            return result;
+        }
         
         // instance methods
+        @Override
+        protected int getValueIndex(String columnName)
+        {
+            return this.table.getKeyColumnIndex(columnName);
+        }
+        
+        public boolean valuesEqual(ColumnValue[] keyValues)
+        {
+            if (keyValues.length != this.values.length) { return false; }
+            for (int i = 0; i < keyValues.length; ++i)
+            {
+                if (!this.values[i].equals(keyValues[i])) { return false; }
+            }
+            return true;
+        }
+        
         @Override
         public int hashCode()
         {
-            int result = IntStream.range(0, this.values.length)
-                .reduce(0, (partialResult, i) -> 37 * partialResult + this.values[i].hashCode());
-            return result;
+            return this.hash;
         }
         
         @Override
@@ -115,9 +151,7 @@ public class Row
         
         public boolean equals(Key that)
         {
-            boolean result = IntStream.range(0, this.values.length)
-                .allMatch(i -> this.values[i].equals(that.values[i]));
-            return result;
+            return this == that || (this.hash == that.hash && this.valuesEqual(that.values));
         }
     }
     
@@ -0,0 +1,181 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * SecondaryIndex.java
+ * SecondaryIndex class definition
+ */
+
+package chairosoft.psv;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * An index on a non-key column of a {@link Table}. Indexes are created
+ * through {@link Table#createHashIndex} and {@link Table#createSortedIndex},
+ * and the table keeps them up to date as rows are added, replaced or removed.
+ * The table updates an index while holding the index's monitor, and the
+ * public query methods hold it too; in a concurrent table they return
+ * copies rather than views of the indexed rows.
+ * <p>
+ * The rows with each value are kept in insertion order, keyed by their
+ * primary key, so replacing or removing a row is constant time even on
+ * columns with few distinct values.
+ */
+public abstract class SecondaryIndex
+{
+    // fields
+    public final Table table;
+    public final int columnIndex;
+    public final Column column;
+    
+    // constructor
+    protected SecondaryIndex(Table _table, int _columnIndex)
+    {
+        this.table = _table;
+        this.columnIndex = _columnIndex;
+        this.column = this.table.getColumn(this.columnIndex);
+    }
+    
+    // instance methods
+    protected abstract void add(Row row);
+    protected abstract void remove(Row row);
+    protected abstract void clear();
+    
+    protected Collection<Row> viewOf(Map<Row.Key, Row> rows)
+    {
+        if (rows == null) { return Collections.<Row>emptyList(); }
+        return this.table.isConcurrent ? new ArrayList<>(rows.values()) : Collections.unmodifiableCollection(rows.values());
+    }
+    
+    protected static Map<Row.Key, Row> newRowMap()
+    {
+        return new LinkedHashMap<>(2);
+    }
+    
+    /** Removes the row from the map if it is the row indexed under its key; returns whether the map is now empty. */
+    protected static boolean removeRow(Map<Row.Key, Row> rows, Row row)
+    {
+        if (rows.get(row.key) == row) { rows.remove(row.key); }
+        return rows.isEmpty();
+    }
+    
+    
+    // static inner classes
+    public static class HashIndex extends SecondaryIndex
+    {
+        // fields
+        private final HashMap<ColumnValue, Map<Row.Key, Row>> rowsByValue = new HashMap<>();
+        
+        // constructor
+        public HashIndex(Table _table, int _columnIndex) { super(_table, _columnIndex); }
+        
+        // instance methods
+        @Override
+        protected void add(Row row)
+        {
+            this.rowsByValue.computeIfAbsent(row.getValue(this.columnIndex), v -> SecondaryIndex.newRowMap()).put(row.key, row);
+        }
+        
+        @Override
+        protected void remove(Row row)
+        {
+            ColumnValue value = row.getValue(this.columnIndex);
+            Map<Row.Key, Row> rows = this.rowsByValue.get(value);
+            if (rows != null && SecondaryIndex.removeRow(rows, row)) { this.rowsByValue.remove(value); }
+        }
+        
+        @Override
+        protected void clear()
+        {
+            this.rowsByValue.clear();
+        }
+        
+        public synchronized Collection<Row> getRows(ColumnValue value)
+        {
+            return this.viewOf(this.rowsByValue.get(value));
+        }
+        
+        public Collection<Row> getRows(String literal)
+        {
+            return this.getRows(this.column.type.parseNew(literal));
+        }
+        
+        public synchronized int getDistinctValueCount()
+        {
+            return this.rowsByValue.size();
+        }
+    }
+    
+    public static class SortedIndex extends SecondaryIndex
+    {
+        // fields
+        private final TreeMap<Integer, Map<Row.Key, Row>> rowsByValue = new TreeMap<>();
+        
+        // constructor
+        public SortedIndex(Table _table, int _columnIndex)
+        {
+            super(_table, _columnIndex);
+            if (this.column.type != ColumnType.INTEGER)
+            {
+                String message = String.format("Sorted index requires an INTEGER column, but column (%s) of table (%s) has type %s.", this.column.name, this.table.name, this.column.type);
+                throw new IllegalArgumentException(message);
+            }
+        }
+        
+        // instance methods
+        private int intValueOf(Row row)
+        {
+            return ((ColumnValue.IntegerColumnValue)row.getValue(this.columnIndex)).value;
+        }
+        
+        @Override
+        protected void add(Row row)
+        {
+            this.rowsByValue.computeIfAbsent(this.intValueOf(row), v -> SecondaryIndex.newRowMap()).put(row.key, row);
+        }
+        
+        @Override
+        protected void remove(Row row)
+        {
+            int value = this.intValueOf(row);
+            Map<Row.Key, Row> rows = this.rowsByValue.get(value);
+            if (rows != null && SecondaryIndex.removeRow(rows, row)) { this.rowsByValue.remove(value); }
+        }
+        
+        @Override
+        protected void clear()
+        {
+            this.rowsByValue.clear();
+        }
+        
+        public synchronized Collection<Row> getRows(int value)
+        {
+            return this.viewOf(this.rowsByValue.get(value));
+        }
+        
+        public synchronized List<Row> getRows(int fromInclusive, int toInclusive)
+        {
+            ArrayList<Row> result = new ArrayList<>();
+            if (fromInclusive > toInclusive) { return result; }
+            NavigableMap<Integer, Map<Row.Key, Row>> range = this.rowsByValue.subMap(fromInclusive, true, toInclusive, true);
+            for (Map<Row.Key, Row> rows : range.values())
+            {
+                result.addAll(rows.values());
+            }
+            return result;
+        }
+        
+        public synchronized Integer getMinValue() { return this.rowsByValue.isEmpty() ? null : this.rowsByValue.firstKey(); }
+        public synchronized Integer getMaxValue() { return this.rowsByValue.isEmpty() ? null : this.rowsByValue.lastKey(); }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,143 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * StringDictionary.java
+ * StringDictionary class definition
+ */
+
+package chairosoft.psv;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dictionary encoding for one STRING column of a {@link Table}. Each
+ * distinct value is stored once and given an int code; the values parsed
+ * for the column carry only the code and look the String up here, so two
+ * values from the same dictionary compare by code. Once the column turns
+ * out to have too many distinct values (more than {@code maxCardinality},
+ * or more than half of the values seen after the first
+ * {@value #SAMPLE_SIZE}), the dictionary stops taking new values and new
+ * values are parsed as plain {@link ColumnValue.StringColumnValue}s.
+ */
+public class StringDictionary
+{
+    // constants
+    public static final int DEFAULT_MAX_CARDINALITY = 1 << 16;
+    public static final int SAMPLE_SIZE = 1 << 12;
+    public static final int NO_CODE = -1;
+    
+    // fields
+    public final int maxCardinality;
+    private final ConcurrentHashMap<String, Integer> codesByValue = new ConcurrentHashMap<>();
+    private volatile String[] valuesByCode = new String[16];
+    private volatile int size = 0;
+    public final int size() { return this.size; }
+    private volatile boolean isEnabled = true;
+    public final boolean isEnabled() { return this.isEnabled; }
+    private final AtomicLong encodeCount = new AtomicLong();
+    
+    // constructors
+    public StringDictionary()
+    {
+        this(DEFAULT_MAX_CARDINALITY);
+    }
+    
+    public StringDictionary(int _maxCardinality)
+    {
+        this.maxCardinality = _maxCardinality;
+    }
+    
+    // instance methods
+    public void disable()
+    {
+        this.isEnabled = false;
+    }
+    
+    public String getValue(int code)
+    {
+        return this.valuesByCode[code];
+    }
+    
+    public int getCode(String value)
+    {
+        Integer code = this.codesByValue.get(value);
+        return (code == null) ? NO_CODE : code;
+    }
+    
+    /**
+     * Returns the code of the given value, adding it to the dictionary if
+     * it is new and the dictionary is still enabled, or {@link #NO_CODE}
+     * otherwise.
+     */
+    public int encode(String value)
+    {
+        if (value == null) { return NO_CODE; }
+        long encodeCount = this.encodeCount.incrementAndGet();
+        Integer code = this.codesByValue.get(value);
+        if (code != null) { return code; }
+        if (!this.isEnabled) { return NO_CODE; }
+        synchronized (this)
+        {
+            code = this.codesByValue.get(value);
+            if (code != null) { return code; }
+            int size = this.size;
+            if (size >= this.maxCardinality || (encodeCount >= SAMPLE_SIZE && size * 2L > encodeCount))
+            {
+                this.isEnabled = false;
+                return NO_CODE;
+            }
+            return this.addNew(value);
+        }
+    }
+    
+    /**
+     * Returns the code of the given value, adding it to the dictionary if
+     * it is new even if the dictionary is disabled. Used when an encoded
+     * value is changed, since it has nowhere else to keep the String.
+     */
+    public int add(String value)
+    {
+        if (value == null) { return NO_CODE; }
+        Integer code = this.codesByValue.get(value);
+        if (code != null) { return code; }
+        synchronized (this)
+        {
+            code = this.codesByValue.get(value);
+            return (code != null) ? code : this.addNew(value);
+        }
+    }
+    
+    /** Gives a new value the next code; callers hold this dictionary's monitor. */
+    private int addNew(String value)
+    {
+        int size = this.size;
+        String[] valuesByCode = this.valuesByCode;
+        if (size == valuesByCode.length)
+        {
+            valuesByCode = Arrays.copyOf(valuesByCode, size * 2);
+        }
+        valuesByCode[size] = value;
+        this.valuesByCode = valuesByCode;
+        this.size = size + 1;
+        this.codesByValue.put(value, size);
+        return size;
+    }
+    
+    public ColumnValue newValue(String literal)
+    {
+        int code = this.encode(literal);
+        return (code == NO_CODE)
+            ? new ColumnValue.StringColumnValue(literal)
+            : new ColumnValue.EncodedStringColumnValue(this, code);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return String.format("StringDictionary(%s values%s)", this.size, this.isEnabled ? "" : ", disabled");
+    }
+}
\ No newline at end of file
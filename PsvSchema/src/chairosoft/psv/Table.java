@@ -9,18 +9,25 @@
 
 package chairosoft.psv;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.Collectors;
 
@@ -30,10 +37,13 @@ public class Table implements Iterable<Column>
     public static final String KEY_LIST_SEPARATOR = "#";
     public static final String KEY_LIST_OPENER = "{";
     public static final String KEY_LIST_CLOSER = "}";
-    public static final String SIMPLE_KEY_ITEM_REGEX = String.format("([^\\%s\\%s\\%s])", KEY_LIST_SEPARATOR, KEY_LIST_OPENER, KEY_LIST_CLOSER);
+    public static final char KEY_LIST_SEPARATOR_CHAR = '#';
+    public static final char KEY_LIST_OPENER_CHAR = '{';
+    public static final char KEY_LIST_CLOSER_CHAR = '}';
+    public static final String SIMPLE_KEY_ITEM_REGEX = String.format("([^\\%s\\%s\\%s]*)", KEY_LIST_SEPARATOR, KEY_LIST_OPENER, KEY_LIST_CLOSER);
     
     // static fields
-    private static final HashMap<String, Table> tablesByName = new HashMap<>();
+    private static final ConcurrentHashMap<String, Table> tablesByName = new ConcurrentHashMap<>();
     public static Table getTable(String tableName) { return Table.tablesByName.get(tableName); }
     
     // instance fields
@@ -41,23 +51,49 @@ public class Table implements Iterable<Column>
     public final boolean isExtendable;
     public final Table parent;
     public final boolean hasParent() { return this.parent != null; }
-    protected final List<Table> children = new ArrayList<>();
+    public final boolean isConcurrent;
+    protected final List<Table> children = new CopyOnWriteArrayList<>();
     protected final Column[] columns;
     public final Column getColumn(int i) { return this.columns[i]; }
+    protected final StringDictionary[] stringDictionaries;
+    public final StringDictionary getStringDictionary(int columnIndex) { return this.stringDictionaries[columnIndex]; }
+    protected final ColumnNameIndex columnNameIndex;
+    public final int getColumnIndex(String columnName) { return this.columnNameIndex.indexOf(columnName); }
     protected final Column[] keyColumns;
-    public final Map<Row.Key, Row> rowsByKey = new HashMap<>();
+    protected final int[] keyColumnIndexes;
+    private final int[] keyPositionsByColumnIndex;
+    public final int getKeyColumnIndex(String columnName) { int i = this.getColumnIndex(columnName); return (i < 0) ? -1 : this.keyPositionsByColumnIndex[i]; }
+    protected final KeyIndex keyIndex;
+    public final Map<Row.Key, Row> rowsByKey;
+    protected final List<SecondaryIndex> secondaryIndexes = new CopyOnWriteArrayList<>();
+    protected final ReentrantReadWriteLock secondaryIndexLock = new ReentrantReadWriteLock();
+    protected ColumnStore columnStore = null;
+    public final boolean hasColumnStore() { return this.columnStore != null; }
     protected final PsvRecord psvHeader;
     public final void writePsvHeaderTo(Writer writer) throws IOException { this.psvHeader.writeTo(writer); }
-    private final boolean needsPsvIdTableName;
-    private final boolean needsPsvIdListOpener;
+    protected final boolean needsPsvIdTableName;
+    protected final boolean needsPsvIdListOpener;
     private final Pattern psvIdentifierPattern;
+    private volatile Map<String, Row> psvIdentifierCache = null;
     
-    // constructor
+    // constructors
     public Table(String _name, boolean _isExtendable, Table _parent, Column[] _ownColumns)
+    {
+        this(_name, _isExtendable, _parent, _ownColumns, false);
+    }
+    
+    /**
+     * Creates a table that is safe for concurrent use if {@code _isConcurrent}
+     * is true. Such a table keeps its rows in a {@link KeyIndex.ConcurrentKeyIndex},
+     * so key lookups never lock and inserts only contend on the same key.
+     * Secondary indexes can be created while rows are being loaded concurrently.
+     */
+    public Table(String _name, boolean _isExtendable, Table _parent, Column[] _ownColumns, boolean _isConcurrent)
     {
         this.name = _name;
         this.isExtendable = _isExtendable;
         this.parent = _parent;
+        this.isConcurrent = _isConcurrent;
         
         Column[] _columns = null;
         if (this.hasParent())
@@ -71,9 +107,29 @@ public class Table implements Iterable<Column>
             _columns = _ownColumns;
         }
         this.columns = _columns;
-        this.keyColumns = Stream.of(this.columns)
-            .filter(col -> col.isPartOfPrimaryKey)
+        this.stringDictionaries = new StringDictionary[this.columns.length];
+        for (int i = 0; i < this.columns.length; ++i)
+        {
+            boolean isInherited = this.hasParent() && i < this.parent.columns.length;
+            this.stringDictionaries[i] = isInherited ? this.parent.stringDictionaries[i]
+                : (this.columns[i].type == ColumnType.STRING) ? new StringDictionary()
+                : null;
+        }
+        this.columnNameIndex = new ColumnNameIndex(this.columns);
+        this.keyColumnIndexes = IntStream.range(0, this.columns.length)
+            .filter(i -> this.columns[i].isPartOfPrimaryKey)
+            .toArray();
+        this.keyColumns = IntStream.of(this.keyColumnIndexes)
+            .mapToObj(i -> this.columns[i])
             .toArray(Column[]::new);
+        this.keyPositionsByColumnIndex = new int[this.columns.length];
+        Arrays.fill(this.keyPositionsByColumnIndex, -1);
+        for (int k = 0; k < this.keyColumnIndexes.length; ++k)
+        {
+            this.keyPositionsByColumnIndex[this.keyColumnIndexes[k]] = k;
+        }
+        this.keyIndex = KeyIndex.create(this);
+        this.rowsByKey = this.keyIndex;
         
         Stream<String> psvHeaderValues = Stream.of(this.columns)
             .map(col -> col.name);
@@ -91,33 +147,263 @@ public class Table implements Iterable<Column>
     @Override public Iterator<Column> iterator() { return new ArrayIterator<Column>(this.columns); }
     @Override public String toString() { return this.name; }
     
-    public String getPsvIdentifierFromRow(Row row)
+    public Row getRowByKey(int keyValue)
+    {
+        if (this.keyIndex instanceof KeyIndex.IntKeyIndex)
+        {
+            return ((KeyIndex.IntKeyIndex)this.keyIndex).get(keyValue);
+        }
+        if (this.keyColumns.length != 1 || this.keyColumns[0].type != ColumnType.INTEGER)
+        {
+            String message = String.format("Table (%s) does not have a single INTEGER key column.", this.name);
+            throw new IllegalStateException(message);
+        }
+        return this.keyIndex.get(new Row.Key(this, new ColumnValue[] { new ColumnValue.IntegerColumnValue(keyValue) }));
+    }
+    
+    public Row getRowByKey(ColumnValue... keyValues)
+    {
+        if (keyValues.length != this.keyColumns.length)
+        {
+            String message = String.format("Number of key columns (%s) does not match number of values (%s) given to table (%s).", this.keyColumns.length, keyValues.length, this.name);
+            throw new IllegalArgumentException(message);
+        }
+        if (this.keyIndex instanceof KeyIndex.CompositeKeyIndex)
+        {
+            return ((KeyIndex.CompositeKeyIndex)this.keyIndex).get(keyValues);
+        }
+        if (this.keyIndex instanceof KeyIndex.IntKeyIndex)
+        {
+            return this.getRowByKey(((ColumnValue.IntegerColumnValue)keyValues[0]).value);
+        }
+        return this.keyIndex.get(new Row.Key(this, keyValues));
+    }
+    
+    public Row parseRow(PsvRecord record)
+    {
+        if (record.values.length != this.columns.length)
+        {
+            String message = String.format("Number of columns (%s) does not match number of values (%s) in record for table (%s).", this.columns.length, record.values.length, this.name);
+            throw new IllegalArgumentException(message);
+        }
+        ColumnValue[] values = new ColumnValue[this.columns.length];
+        PsvMetrics.Listener listener = PsvMetrics.getListener();
+        if (listener == null)
+        {
+            for (int i = 0; i < values.length; ++i)
+            {
+                values[i] = this.parseValue(i, record.values[i]);
+            }
+        }
+        else
+        {
+            long[] elapsedNanosByColumn = new long[values.length];
+            for (int i = 0; i < values.length; ++i)
+            {
+                long startNanos = System.nanoTime();
+                values[i] = this.parseValue(i, record.values[i]);
+                elapsedNanosByColumn[i] = System.nanoTime() - startNanos;
+            }
+            listener.valuesParsed(this, elapsedNanosByColumn);
+        }
+        return new Row(this, values);
+    }
+    
+    public ColumnValue parseValue(int columnIndex, String literal)
+    {
+        StringDictionary dictionary = this.stringDictionaries[columnIndex];
+        return (dictionary == null) ? this.columns[columnIndex].type.parseNew(literal) : dictionary.newValue(literal);
+    }
+    
+    public Row addRow(Row row)
     {
         if (this != row.table)
         {
             String message = String.format("Table (%s) does not match row's table (%s).", this.name, row.table.name);
             throw new IllegalStateException(message);
         }
-        String tableName = this.needsPsvIdTableName ? this.name : "";
-        String keyListOpener = this.needsPsvIdListOpener ? KEY_LIST_OPENER : "";
-        String keyListCloser = this.needsPsvIdListOpener ? KEY_LIST_CLOSER : "";
-        String keyList = Stream.of(row.key.values)
-            .map(value -> value.getStringValue())
-            .collect(Collectors.joining(KEY_LIST_SEPARATOR));
-        String result = String.format("%s%s%s%s", tableName, keyListOpener, keyList, keyListCloser);
+        Row oldRow = this.keyIndex.put(row.key, row);
+        PsvMetrics.Listener listener = PsvMetrics.getListener();
+        if (listener != null) { listener.rowAdded(this, oldRow, row); }
+        return oldRow;
+    }
+    
+    public Row addRecord(PsvRecord record)
+    {
+        return this.addRow(this.parseRow(record));
+    }
+    
+    public int load(File file)
+    {
+        PsvMetrics.Listener listener = PsvMetrics.getListener();
+        long startNanos = (listener == null) ? 0 : System.nanoTime();
+        int count = 0;
+        try (PsvRecordReader reader = new PsvRecordReader(file, this.columns.length))
+        {
+            this.checkPsvHeader(reader.headerRecord, file);
+            while (reader.hasNext())
+            {
+                PsvRecord record = reader.next();
+                try
+                {
+                    this.addRecord(record);
+                }
+                catch (Exception ex)
+                {
+                    if (listener != null) { listener.lineFailed(file, reader.getLineNumber() - 1, ex); }
+                    String message = String.format("Error in line %s of file %s.", reader.getLineNumber() - 1, file);
+                    throw new IllegalStateException(message, ex);
+                }
+                ++count;
+            }
+        }
+        if (listener != null) { listener.fileRead(file, file.length(), count, System.nanoTime() - startNanos); }
+        return count;
+    }
+    
+    /**
+     * Loads the file like {@link #load(File)}, but checks required values,
+     * key uniqueness and references, and adds every violation to the report
+     * instead of stopping at the first bad line. See {@link TableValidator}.
+     */
+    public int loadValidated(File file, ValidationReport report)
+    {
+        return new TableValidator(this).load(file, report);
+    }
+    
+    public void checkPsvHeader(PsvRecord headerRecord, File file)
+    {
+        if (!Arrays.equals(headerRecord.values, this.psvHeader.values))
+        {
+            String message = String.format("Header of file %s (%s) does not match columns of table (%s).", file, String.join(String.valueOf(PsvRecord.VALUE_DELIMITER), headerRecord.values), this.name);
+            throw new IllegalArgumentException(message);
+        }
+    }
+    
+    public int requireColumnIndex(String columnName)
+    {
+        int result = this.getColumnIndex(columnName);
+        if (result < 0)
+        {
+            String message = String.format("Table (%s) has no column named (%s).", this.name, columnName);
+            throw new IllegalArgumentException(message);
+        }
         return result;
     }
     
+    public SecondaryIndex.HashIndex createHashIndex(String columnName)
+    {
+        return this.addSecondaryIndex(new SecondaryIndex.HashIndex(this, this.requireColumnIndex(columnName)));
+    }
+    
+    public SecondaryIndex.SortedIndex createSortedIndex(String columnName)
+    {
+        return this.addSecondaryIndex(new SecondaryIndex.SortedIndex(this, this.requireColumnIndex(columnName)));
+    }
+    
+    /**
+     * Publishes the index and fills it from the existing rows while holding
+     * the write side of {@code secondaryIndexLock}. Writers of a concurrent
+     * table hold the read side from before they update {@code rowsByKey}
+     * until the new row is visible there, so the fill waits for writes in
+     * progress and later writes update the new index themselves.
+     */
+    protected <I extends SecondaryIndex> I addSecondaryIndex(I index)
+    {
+        this.secondaryIndexLock.writeLock().lock();
+        try
+        {
+            synchronized (index)
+            {
+                this.secondaryIndexes.add(index);
+                for (Row row : this.rowsByKey.values())
+                {
+                    index.add(row);
+                }
+            }
+        }
+        finally
+        {
+            this.secondaryIndexLock.writeLock().unlock();
+        }
+        return index;
+    }
+    
+    protected void onRowReplaced(Row oldRow, Row newRow)
+    {
+        for (SecondaryIndex index : this.secondaryIndexes)
+        {
+            synchronized (index)
+            {
+                if (oldRow != null) { index.remove(oldRow); }
+                if (newRow != null) { index.add(newRow); }
+            }
+        }
+    }
+    
+    protected void onRowsCleared()
+    {
+        for (SecondaryIndex index : this.secondaryIndexes)
+        {
+            synchronized (index)
+            {
+                index.clear();
+            }
+        }
+    }
+    
+    public synchronized ColumnStore getColumnStore()
+    {
+        if (this.columnStore == null)
+        {
+            this.columnStore = new ColumnStore(this);
+        }
+        return this.columnStore;
+    }
+    
+    public String getPsvIdentifierFromRow(Row row)
+    {
+        if (this != row.table)
+        {
+            String message = String.format("Table (%s) does not match row's table (%s).", this.name, row.table.name);
+            throw new IllegalStateException(message);
+        }
+        return this.appendPsvIdentifier(new StringBuilder(), row).toString();
+    }
+    
+    public StringBuilder appendPsvIdentifier(StringBuilder builder, Row row)
+    {
+        if (this.needsPsvIdTableName) { builder.append(this.name); }
+        if (this.needsPsvIdListOpener) { builder.append(KEY_LIST_OPENER_CHAR); }
+        ColumnValue[] keyValues = row.key.values;
+        for (int i = 0; i < keyValues.length; ++i)
+        {
+            if (i > 0) { builder.append(KEY_LIST_SEPARATOR_CHAR); }
+            ColumnValue value = keyValues[i];
+            if (value instanceof ColumnValue.ReferenceColumnValue && ((ColumnValue.ReferenceColumnValue)value).isResolved() && !((ColumnValue.ReferenceColumnValue)value).isNull())
+            {
+                Row target = ((ColumnValue.ReferenceColumnValue)value).value;
+                target.table.appendPsvIdentifier(builder, target);
+            }
+            else
+            {
+                builder.append(value.getStringValue());
+            }
+        }
+        if (this.needsPsvIdListOpener) { builder.append(KEY_LIST_CLOSER_CHAR); }
+        return builder;
+    }
+    
     public String getPsvIdentifierRegex()
     {
         String result = "";
-        if (this.needsPsvIdTableName) { result += this.name; }
-        if (this.needsPsvIdListOpener) { result += KEY_LIST_OPENER; }
+        if (this.needsPsvIdTableName) { result += Pattern.quote(this.name); }
+        if (this.needsPsvIdListOpener) { result += Pattern.quote(KEY_LIST_OPENER); }
         String innerResult = Stream.of(this.keyColumns)
             .map(column -> column.type.psvItemRegex)
-            .collect(Collectors.joining(KEY_LIST_SEPARATOR));
+            .collect(Collectors.joining(Pattern.quote(KEY_LIST_SEPARATOR)));
         result += innerResult;
-        if (this.needsPsvIdListOpener) { result += KEY_LIST_CLOSER; }
+        if (this.needsPsvIdListOpener) { result += Pattern.quote(KEY_LIST_CLOSER); }
         return result;
     }
     
@@ -146,18 +432,130 @@ public class Table implements Iterable<Column>
         return this.matchingPsvIdentifierTableName(psvIdentifier) != null;
     }
     
+    public boolean isSameOrSubtableOf(Table that)
+    {
+        for (Table t = this; t != null; t = t.parent)
+        {
+            if (t == that) { return true; }
+        }
+        return false;
+    }
+    
+    public void setPsvIdentifierCacheSize(int maxSize)
+    {
+        this.psvIdentifierCache = (maxSize <= 0) ? null : new LinkedHashMap<String, Row>(16, 0.75f, true)
+        {
+            @Override protected boolean removeEldestEntry(Map.Entry<String, Row> eldest) { return this.size() > maxSize; }
+        };
+    }
+    
+    public static class PsvIdentifier
+    {
+        public final Table table;
+        public final String[] keyLiterals;
+        public PsvIdentifier(Table t, String[] k) { this.table = t; this.keyLiterals = k; }
+    }
+    
+    public PsvIdentifier parsePsvIdentifier(String psvIdentifier)
+    {
+        int length = psvIdentifier.length();
+        int openerIndex = psvIdentifier.indexOf(KEY_LIST_OPENER_CHAR);
+        
+        Table target = this;
+        if (this.needsPsvIdTableName)
+        {
+            String tableName = (openerIndex < 0) ? psvIdentifier : psvIdentifier.substring(0, openerIndex);
+            target = this.name.equals(tableName) ? this : Table.getTable(tableName);
+            if (target == null || !target.isSameOrSubtableOf(this)) { throw this.incompatiblePsvIdentifier(psvIdentifier); }
+        }
+        else if (this.needsPsvIdListOpener && openerIndex != 0)
+        {
+            throw this.incompatiblePsvIdentifier(psvIdentifier);
+        }
+        
+        String[] keyLiterals = new String[target.keyColumns.length];
+        if (!target.needsPsvIdListOpener)
+        {
+            if (keyLiterals.length != 1) { throw this.incompatiblePsvIdentifier(psvIdentifier); }
+            keyLiterals[0] = psvIdentifier;
+            return new PsvIdentifier(target, keyLiterals);
+        }
+        
+        if (openerIndex < 0 || psvIdentifier.charAt(length - 1) != KEY_LIST_CLOSER_CHAR) { throw this.incompatiblePsvIdentifier(psvIdentifier); }
+        int listEnd = length - 1;
+        int keyIndex = 0;
+        int itemStart = openerIndex + 1;
+        int depth = 0;
+        for (int i = itemStart; i <= listEnd; ++i)
+        {
+            char c = (i == listEnd) ? KEY_LIST_SEPARATOR_CHAR : psvIdentifier.charAt(i);
+            if (c == KEY_LIST_OPENER_CHAR) { ++depth; }
+            else if (c == KEY_LIST_CLOSER_CHAR) { if (--depth < 0) { throw this.incompatiblePsvIdentifier(psvIdentifier); } }
+            else if (c == KEY_LIST_SEPARATOR_CHAR && depth == 0)
+            {
+                if (keyIndex >= keyLiterals.length) { throw this.incompatiblePsvIdentifier(psvIdentifier); }
+                keyLiterals[keyIndex++] = psvIdentifier.substring(itemStart, i);
+                itemStart = i + 1;
+            }
+        }
+        if (depth != 0 || keyIndex != keyLiterals.length) { throw this.incompatiblePsvIdentifier(psvIdentifier); }
+        return new PsvIdentifier(target, keyLiterals);
+    }
+    
+    private IllegalArgumentException incompatiblePsvIdentifier(String psvIdentifier)
+    {
+        String message = String.format("PSV identifier (%s) is not compatible with table type (%s).", psvIdentifier, this.name);
+        return new IllegalArgumentException(message);
+    }
+    
     public Row getRowFromPsvIdentifier(String psvIdentifier)
     {
-        TableMatcher tableMatcher = this.matchingPsvIdentifierTableName(psvIdentifier);
-        if (tableMatcher == null)
+        Map<String, Row> cache = this.psvIdentifierCache;
+        if (cache != null)
         {
-            String message = String.format("PSV identifier (%s) is not compatible with table type (%s).", psvIdentifier, this.name);
-            throw new IllegalArgumentException(message);
+            Row cachedRow;
+            synchronized (cache) { cachedRow = cache.get(psvIdentifier); }
+            if (cachedRow != null && cachedRow.table.keyIndex.get(cachedRow.key) == cachedRow) { return cachedRow; }
         }
         
-        // {v1#v2#{v3a#v3b}#v4}
+        Row result = this.findRowFromPsvIdentifier(psvIdentifier);
+        if (result == null)
+        {
+            String message = String.format("No row in table (%s) has PSV identifier (%s).", this.name, psvIdentifier);
+            throw new IllegalArgumentException(message);
+        }
         
-        // TODO
-        throw new UnsupportedOperationException();
+        if (cache != null)
+        {
+            synchronized (cache) { cache.put(psvIdentifier, result); }
+        }
+        return result;
+    }
+    
+    public int hashPsvIdentifier(String psvIdentifier)
+    {
+        PsvIdentifier parsed = this.parsePsvIdentifier(psvIdentifier);
+        int result = 0;
+        for (int i = 0; i < parsed.keyLiterals.length; ++i)
+        {
+            result = 37 * result + parsed.table.keyColumns[i].type.hashLiteral(parsed.keyLiterals[i]);
+        }
+        return result;
+    }
+    
+    public Row findRowFromPsvIdentifier(String psvIdentifier)
+    {
+        PsvIdentifier parsed = this.parsePsvIdentifier(psvIdentifier);
+        Table target = parsed.table;
+        if (target.keyIndex instanceof KeyIndex.IntKeyIndex)
+        {
+            return ((KeyIndex.IntKeyIndex)target.keyIndex).get(Integer.parseInt(parsed.keyLiterals[0]));
+        }
+        ColumnValue[] keyValues = new ColumnValue[parsed.keyLiterals.length];
+        for (int i = 0; i < keyValues.length; ++i)
+        {
+            keyValues[i] = target.keyColumns[i].type.parseNew(parsed.keyLiterals[i]);
+        }
+        return target.getRowByKey(keyValues);
     }
 }
\ No newline at end of file
@@ -0,0 +1,447 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * TableDiff.java
+ * TableDiff class definition
+ */
+
+package chairosoft.psv;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Compares two PSV exports of a {@link Table} by primary key and writes the
+ * differences as a delta PSV file. The delta has the table's columns
+ * preceded by a {@value #CHANGE_COLUMN_NAME} column holding
+ * {@value #ADDED} (row only in the new file), {@value #REMOVED} (row only
+ * in the old file, written with its old values) or {@value #CHANGED} (row
+ * in both files with different values, written with its new values).
+ * <p>
+ * When both files are sorted by key, they are merged in a single streaming
+ * pass. Otherwise both files are hash-partitioned by key into temporary
+ * files small enough to hold one old partition in memory, and each new
+ * partition is probed against it, so neither mode needs memory
+ * proportional to the size of the files. {@link #diff} starts by merging
+ * and, at the first key that is out of order, starts over with hash
+ * partitioning, so sorted files are only read once.
+ * <p>
+ * A key that occurs more than once in either file makes the diff fail
+ * with an {@link IllegalStateException}, since the delta of such a file
+ * is not well defined.
+ */
+public class TableDiff
+{
+    // constants
+    public static final String CHANGE_COLUMN_NAME = "change";
+    public static final String ADDED = "+";
+    public static final String REMOVED = "-";
+    public static final String CHANGED = "~";
+    public static final long DEFAULT_PARTITION_SIZE = 64L << 20;
+    public static final int MAX_PARTITION_COUNT = 1024;
+    
+    // fields
+    public final Table table;
+    public final PsvRecord deltaHeader;
+    private final int[] keyColumnIndexes;
+    private final ColumnType[] keyTypes;
+    private long partitionSize = DEFAULT_PARTITION_SIZE;
+    public final long getPartitionSize() { return this.partitionSize; }
+    public final void setPartitionSize(long _partitionSize) { this.partitionSize = Math.max(1, _partitionSize); }
+    
+    // constructor
+    public TableDiff(Table _table)
+    {
+        this.table = _table;
+        String[] headerValues = new String[this.table.columns.length + 1];
+        headerValues[0] = CHANGE_COLUMN_NAME;
+        System.arraycopy(this.table.psvHeader.values, 0, headerValues, 1, this.table.columns.length);
+        this.deltaHeader = new PsvRecord(headerValues);
+        this.keyColumnIndexes = this.table.keyColumnIndexes;
+        this.keyTypes = new ColumnType[this.keyColumnIndexes.length];
+        for (int i = 0; i < this.keyTypes.length; ++i)
+        {
+            this.keyTypes[i] = this.table.keyColumns[i].type;
+        }
+    }
+    
+    // static methods
+    private static boolean isInOrder(SortedCursor oldCursor, SortedCursor newCursor, boolean isStrict)
+    {
+        if (isStrict)
+        {
+            oldCursor.requireInOrder();
+            newCursor.requireInOrder();
+        }
+        return !oldCursor.isOutOfOrder && !newCursor.isOutOfOrder;
+    }
+    
+    // instance methods
+    public Summary diff(File oldFile, File newFile, File deltaFile)
+        throws IOException
+    {
+        Summary result = this.merge(oldFile, newFile, deltaFile, false);
+        return (result != null) ? result : this.diffHashed(oldFile, newFile, deltaFile);
+    }
+    
+    /**
+     * Reads the file and returns whether its keys are strictly increasing,
+     * stopping at the first key that is out of order.
+     * @throws IllegalStateException if two neighbouring lines have the same key
+     */
+    public boolean isSortedByKey(File file)
+    {
+        try (SortedCursor cursor = new SortedCursor(file))
+        {
+            do
+            {
+                cursor.advance();
+                if (cursor.isOutOfOrder) { return false; }
+            }
+            while (cursor.record != null);
+        }
+        return true;
+    }
+    
+    /**
+     * Merges two files that are sorted by key.
+     * @throws IllegalArgumentException if either file turns out not to be
+     *         sorted by key, leaving an incomplete delta file; use
+     *         {@link #diff} to fall back to hash partitioning instead
+     */
+    public Summary diffSorted(File oldFile, File newFile, File deltaFile)
+        throws IOException
+    {
+        return this.merge(oldFile, newFile, deltaFile, true);
+    }
+    
+    /**
+     * Merges two files, or returns null at the first key that is out of
+     * order if {@code isStrict} is false, leaving an incomplete delta file.
+     */
+    private Summary merge(File oldFile, File newFile, File deltaFile, boolean isStrict)
+        throws IOException
+    {
+        Summary summary = new Summary();
+        try (SortedCursor oldCursor = new SortedCursor(oldFile);
+             SortedCursor newCursor = new SortedCursor(newFile);
+             PsvRecordWriter writer = new PsvRecordWriter(deltaFile, this.deltaHeader))
+        {
+            oldCursor.advance();
+            newCursor.advance();
+            while (oldCursor.record != null || newCursor.record != null)
+            {
+                if (!TableDiff.isInOrder(oldCursor, newCursor, isStrict)) { return null; }
+                int comparison = (oldCursor.record == null) ? 1
+                    : (newCursor.record == null) ? -1
+                    : this.compareKeys(oldCursor.key, newCursor.key);
+                if (comparison < 0)
+                {
+                    this.writeChange(writer, summary, REMOVED, oldCursor.record);
+                    oldCursor.advance();
+                }
+                else if (comparison > 0)
+                {
+                    this.writeChange(writer, summary, ADDED, newCursor.record);
+                    newCursor.advance();
+                }
+                else
+                {
+                    if (!Arrays.equals(oldCursor.record.values, newCursor.record.values))
+                    {
+                        this.writeChange(writer, summary, CHANGED, newCursor.record);
+                    }
+                    oldCursor.advance();
+                    newCursor.advance();
+                }
+            }
+            if (!TableDiff.isInOrder(oldCursor, newCursor, isStrict)) { return null; }
+        }
+        return summary;
+    }
+
+    
+    /**
+     * Diffs two files in any order by partitioning both of them on the hash
+     * of their keys and comparing one partition at a time.
+     */
+    public Summary diffHashed(File oldFile, File newFile, File deltaFile)
+        throws IOException
+    {
+        long largestSize = Math.max(oldFile.length(), newFile.length());
+        int partitionCount = (int)Math.min(MAX_PARTITION_COUNT, Math.max(1, (largestSize + this.partitionSize - 1) / this.partitionSize));
+        Summary summary = new Summary();
+        try (PsvRecordWriter writer = new PsvRecordWriter(deltaFile, this.deltaHeader))
+        {
+            if (partitionCount == 1)
+            {
+                try (PsvRecordReader oldReader = this.openReader(oldFile);
+                     PsvRecordReader newReader = this.openReader(newFile))
+                {
+                    this.diffPartition(oldReader, oldFile, newReader, newFile, writer, summary);
+                }
+                return summary;
+            }
+            
+            File[] oldPartitions = new File[partitionCount];
+            File[] newPartitions = new File[partitionCount];
+            try
+            {
+                this.partition(oldFile, oldPartitions);
+                this.partition(newFile, newPartitions);
+                for (int p = 0; p < partitionCount; ++p)
+                {
+                    try (PsvRecordReader oldReader = new PsvRecordReader(oldPartitions[p], this.table.columns.length);
+                         PsvRecordReader newReader = new PsvRecordReader(newPartitions[p], this.table.columns.length))
+                    {
+                        this.diffPartition(oldReader, oldFile, newReader, newFile, writer, summary);
+                    }
+                }
+            }
+            finally
+            {
+                for (int p = 0; p < partitionCount; ++p)
+                {
+                    if (oldPartitions[p] != null) { oldPartitions[p].delete(); }
+                    if (newPartitions[p] != null) { newPartitions[p].delete(); }
+                }
+            }
+        }
+        return summary;
+    }
+    
+    private void partition(File file, File[] partitions)
+        throws IOException
+    {
+        Writer[] writers = new Writer[partitions.length];
+        try (PsvRecordReader reader = this.openReader(file))
+        {
+            for (int p = 0; p < partitions.length; ++p)
+            {
+                partitions[p] = File.createTempFile("psv-diff-", ".psv");
+                writers[p] = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(partitions[p]), PsvRecord.CHARSET));
+                this.table.psvHeader.writeTo(writers[p]);
+            }
+            while (reader.hasNext())
+            {
+                PsvRecord record = reader.next();
+                String key = this.normalizedKeyOf(record, reader);
+                int p = Math.floorMod(KeyIndex.spread(key.hashCode()), partitions.length);
+                record.writeTo(writers[p]);
+            }
+        }
+        finally
+        {
+            for (Writer writer : writers)
+            {
+                if (writer != null) { writer.close(); }
+            }
+        }
+    }
+    
+    private void diffPartition(PsvRecordReader oldReader, File oldFile, PsvRecordReader newReader, File newFile, PsvRecordWriter writer, Summary summary)
+        throws IOException
+    {
+        HashMap<String, PsvRecord> oldRecordsByKey = new HashMap<>();
+        while (oldReader.hasNext())
+        {
+            PsvRecord record = oldReader.next();
+            String key = this.normalizedKeyOf(record, oldReader);
+            if (oldRecordsByKey.put(key, record) != null)
+            {
+                throw this.duplicateKey(key, oldFile);
+            }
+        }
+        HashSet<String> newKeys = new HashSet<>();
+        while (newReader.hasNext())
+        {
+            PsvRecord newRecord = newReader.next();
+            String key = this.normalizedKeyOf(newRecord, newReader);
+            if (!newKeys.add(key))
+            {
+                throw this.duplicateKey(key, newFile);
+            }
+            PsvRecord oldRecord = oldRecordsByKey.remove(key);
+            if (oldRecord == null)
+            {
+                this.writeChange(writer, summary, ADDED, newRecord);
+            }
+            else if (!Arrays.equals(oldRecord.values, newRecord.values))
+            {
+                this.writeChange(writer, summary, CHANGED, newRecord);
+            }
+        }
+        for (PsvRecord oldRecord : oldRecordsByKey.values())
+        {
+            this.writeChange(writer, summary, REMOVED, oldRecord);
+        }
+    }
+    
+    private IllegalStateException duplicateKey(String key, File file)
+    {
+        String message = String.format("Key (%s) occurs more than once in file %s.", key, file);
+        return new IllegalStateException(message);
+    }
+    
+    private PsvRecordReader openReader(File file)
+    {
+        PsvRecordReader result = new PsvRecordReader(file, this.table.columns.length);
+        try
+        {
+            this.table.checkPsvHeader(result.headerRecord, file);
+        }
+        catch (RuntimeException ex)
+        {
+            try { result.close(); }
+            catch (Exception closeEx) { ex.addSuppressed(closeEx); }
+            throw ex;
+        }
+        return result;
+    }
+    
+    private String[] normalizeKey(PsvRecord record)
+    {
+        String[] result = new String[this.keyColumnIndexes.length];
+        for (int i = 0; i < result.length; ++i)
+        {
+            result[i] = this.keyTypes[i].normalizeLiteral(record.values[this.keyColumnIndexes[i]]);
+        }
+        return result;
+    }
+    
+    private String normalizedKeyOf(PsvRecord record, PsvRecordReader reader)
+    {
+        try
+        {
+            return String.join(String.valueOf(PsvRecord.VALUE_DELIMITER), this.normalizeKey(record));
+        }
+        catch (RuntimeException ex)
+        {
+            String message = String.format("Error in line %s of file %s.", reader.getLineNumber() - 1, reader.file);
+            throw new IllegalStateException(message, ex);
+        }
+    }
+    
+    private int compareKeys(String[] key1, String[] key2)
+    {
+        for (int i = 0; i < key1.length; ++i)
+        {
+            int result = this.keyTypes[i].compareLiterals(key1[i], key2[i]);
+            if (result != 0) { return result; }
+        }
+        return 0;
+    }
+    
+    private void writeChange(PsvRecordWriter writer, Summary summary, String change, PsvRecord record)
+        throws IOException
+    {
+        String[] values = new String[record.values.length + 1];
+        values[0] = change;
+        System.arraycopy(record.values, 0, values, 1, record.values.length);
+        writer.write(new PsvRecord(values));
+        summary.count(change);
+    }
+    
+    
+    // inner classes
+    private class SortedCursor implements AutoCloseable
+    {
+        // fields
+        private final PsvRecordReader reader;
+        private PsvRecord record = null;
+        private String[] key = null;
+        private boolean isOutOfOrder = false;
+        
+        // constructor
+        public SortedCursor(File file)
+        {
+            this.reader = TableDiff.this.openReader(file);
+        }
+        
+        // instance methods
+        public void advance()
+        {
+            if (!this.reader.hasNext())
+            {
+                this.record = null;
+                return;
+            }
+            PsvRecord nextRecord = this.reader.next();
+            String[] nextKey;
+            try
+            {
+                nextKey = TableDiff.this.normalizeKey(nextRecord);
+            }
+            catch (RuntimeException ex)
+            {
+                String message = String.format("Error in line %s of file %s.", this.reader.getLineNumber() - 1, this.reader.file);
+                throw new IllegalStateException(message, ex);
+            }
+            int comparison = (this.key == null) ? -1 : TableDiff.this.compareKeys(this.key, nextKey);
+            if (comparison == 0)
+            {
+                String message = String.format("Key (%s) in line %s of file %s occurs more than once.", String.join(String.valueOf(PsvRecord.VALUE_DELIMITER), nextKey), this.reader.getLineNumber() - 1, this.reader.file);
+                throw new IllegalStateException(message);
+            }
+            if (comparison > 0)
+            {
+                this.isOutOfOrder = true;
+            }
+            this.record = nextRecord;
+            this.key = nextKey;
+        }
+        
+        public void requireInOrder()
+        {
+            if (!this.isOutOfOrder) { return; }
+            String message = String.format("File %s is not sorted by key (line %s).", this.reader.file, this.reader.getLineNumber() - 1);
+            throw new IllegalArgumentException(message);
+        }
+        
+        @Override
+        public void close()
+        {
+            this.reader.close();
+        }
+    }
+    
+    
+    // static inner classes
+    public static class Summary
+    {
+        // fields
+        private long addedCount = 0;
+        public final long getAddedCount() { return this.addedCount; }
+        private long removedCount = 0;
+        public final long getRemovedCount() { return this.removedCount; }
+        private long changedCount = 0;
+        public final long getChangedCount() { return this.changedCount; }
+        public final long getTotalCount() { return this.addedCount + this.removedCount + this.changedCount; }
+        
+        // instance methods
+        private void count(String change)
+        {
+            switch (change)
+            {
+                case ADDED: ++this.addedCount; break;
+                case REMOVED: ++this.removedCount; break;
+                default: ++this.changedCount; break;
+            }
+        }
+        
+        @Override
+        public String toString()
+        {
+            return String.format("%s added, %s removed, %s changed", this.addedCount, this.removedCount, this.changedCount);
+        }
+    }
+}
\ No newline at end of file
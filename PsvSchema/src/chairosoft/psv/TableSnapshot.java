@@ -0,0 +1,335 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 17, 2026
+ * 
+ * TableSnapshot.java
+ * TableSnapshot class definition
+ */
+
+package chairosoft.psv;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary snapshots of one or more {@link Table}s. Each table section
+ * records the table name, each column's name, {@link ColumnType} id and
+ * type name, and then the values column by column: INTEGER columns as
+ * fixed-width ints, BOOLEAN columns as packed bits, and every other column
+ * as length-prefixed UTF-8 literals (reference columns store PSV
+ * identifiers). Reading streams the file through a fixed-size buffer, so
+ * snapshots of any size can be read, and rebuilds rows directly, resolving
+ * references in a {@link ReferenceBatch} so tables may appear in any order.
+ * Every section is decoded before any table is changed; the tables then
+ * have their existing rows replaced by the snapshot's rows, and if the
+ * references cannot be resolved they get their previous rows back.
+ * <pre>
+ * file    := MAGIC VERSION tableCount:int table*
+ * table   := name:str columnCount:int (name:str typeId:int typeName:str)* rowCount:int column*
+ * str     := length:int utf8Bytes (length -1 for null)
+ * </pre>
+ */
+public class TableSnapshot
+{
+    // constants
+    public static final int MAGIC = 0x50535642;
+    public static final int VERSION = 1;
+    public static final int READ_BUFFER_SIZE = 1 << 16;
+    
+    // constructor
+    private TableSnapshot() { }
+    
+    // static methods
+    public static void write(File file, Table... tables)
+        throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16)))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(tables.length);
+            for (Table table : tables)
+            {
+                TableSnapshot.writeTable(out, table);
+            }
+        }
+    }
+    
+    private static void writeTable(DataOutputStream out, Table table)
+        throws IOException
+    {
+        Row[] rows = table.rowsByKey.values().toArray(new Row[0]);
+        TableSnapshot.writeString(out, table.name);
+        out.writeInt(table.columns.length);
+        for (Column column : table.columns)
+        {
+            TableSnapshot.writeString(out, column.name);
+            out.writeInt(column.type.id);
+            TableSnapshot.writeString(out, column.type.name);
+        }
+        out.writeInt(rows.length);
+        for (int c = 0; c < table.columns.length; ++c)
+        {
+            ColumnType type = table.columns[c].type;
+            if (type == ColumnType.INTEGER)
+            {
+                for (Row row : rows) { out.writeInt(((ColumnValue.IntegerColumnValue)row.values[c]).value); }
+            }
+            else if (type == ColumnType.BOOLEAN)
+            {
+                int packed = 0;
+                for (int r = 0; r < rows.length; ++r)
+                {
+                    if (((ColumnValue.BooleanColumnValue)rows[r].values[c]).value) { packed |= 1 << (r & 7); }
+                    if ((r & 7) == 7 || r == rows.length - 1)
+                    {
+                        out.writeByte(packed);
+                        packed = 0;
+                    }
+                }
+            }
+            else
+            {
+                for (Row row : rows) { TableSnapshot.writeString(out, row.values[c].getStringValue()); }
+            }
+        }
+    }
+    
+    private static void writeString(DataOutputStream out, String value)
+        throws IOException
+    {
+        if (value == null)
+        {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(PsvRecord.CHARSET);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    public static List<Table> read(File file)
+    {
+        ArrayList<Table> result = new ArrayList<>();
+        ReferenceBatch batch = (ReferenceBatch.current() == null) ? ReferenceBatch.begin() : null;
+        try (SnapshotInput in = new SnapshotInput(file))
+        {
+            int magic = in.getInt();
+            int version = in.getInt();
+            if (magic != MAGIC || version != VERSION)
+            {
+                String message = String.format("File %s is not a version %s table snapshot (magic = %08X, version = %s).", file, VERSION, magic, version);
+                throw new IllegalArgumentException(message);
+            }
+            int tableCount = in.getInt();
+            ArrayList<Row[]> rowsByTable = new ArrayList<>(tableCount);
+            for (int t = 0; t < tableCount; ++t)
+            {
+                Table table = TableSnapshot.readTableHeader(in, file);
+                result.add(table);
+                rowsByTable.add(TableSnapshot.readRows(in, table));
+            }
+            
+            ArrayList<Row[]> previousRowsByTable = new ArrayList<>(tableCount);
+            for (int t = 0; t < tableCount; ++t)
+            {
+                Table table = result.get(t);
+                previousRowsByTable.add(table.rowsByKey.values().toArray(new Row[0]));
+                TableSnapshot.replaceRows(table, rowsByTable.get(t));
+            }
+            try
+            {
+                if (batch != null) { batch.resolve(); }
+            }
+            catch (RuntimeException ex)
+            {
+                for (int t = tableCount - 1; t >= 0; --t)
+                {
+                    TableSnapshot.replaceRows(result.get(t), previousRowsByTable.get(t));
+                }
+                throw ex;
+            }
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+        finally
+        {
+            if (batch != null) { batch.close(); }
+        }
+        return result;
+    }
+    
+    private static Table readTableHeader(SnapshotInput in, File file)
+        throws IOException
+    {
+        String tableName = TableSnapshot.readString(in);
+        Table table = Table.getTable(tableName);
+        if (table == null)
+        {
+            String message = String.format("Table snapshot %s contains unknown table (%s).", file, tableName);
+            throw new IllegalStateException(message);
+        }
+        int columnCount = in.getInt();
+        if (columnCount != table.columns.length)
+        {
+            String message = String.format("Table snapshot %s has %s columns for table (%s), but the table has %s.", file, columnCount, tableName, table.columns.length);
+            throw new IllegalStateException(message);
+        }
+        for (Column column : table.columns)
+        {
+            String columnName = TableSnapshot.readString(in);
+            int typeId = in.getInt();
+            String typeName = TableSnapshot.readString(in);
+            boolean isSameType = (typeId < 0 || typeId >= ColumnType.getTypeCount() || ColumnType.getById(typeId) != column.type)
+                ? ColumnType.getByName(typeName) == column.type
+                : true;
+            if (!column.name.equals(columnName) || !isSameType)
+            {
+                String message = String.format("Table snapshot %s has column %s of type %s (id %s) for table (%s), but the table has column %s of type %s.", file, columnName, typeName, typeId, tableName, column.name, column.type);
+                throw new IllegalStateException(message);
+            }
+        }
+        return table;
+    }
+    
+    /** Decodes a table's rows without adding them, leaving references for the current batch. */
+    private static Row[] readRows(SnapshotInput in, Table table)
+        throws IOException
+    {
+        int columnCount = table.columns.length;
+        int rowCount = in.getInt();
+        ColumnValue[][] values = new ColumnValue[rowCount][columnCount];
+        for (int c = 0; c < columnCount; ++c)
+        {
+            ColumnType type = table.columns[c].type;
+            if (type == ColumnType.INTEGER)
+            {
+                for (int r = 0; r < rowCount; ++r) { values[r][c] = new ColumnValue.IntegerColumnValue(in.getInt()); }
+            }
+            else if (type == ColumnType.BOOLEAN)
+            {
+                int packed = 0;
+                for (int r = 0; r < rowCount; ++r)
+                {
+                    if ((r & 7) == 0) { packed = in.get(); }
+                    values[r][c] = new ColumnValue.BooleanColumnValue((packed & (1 << (r & 7))) != 0);
+                }
+            }
+            else
+            {
+                for (int r = 0; r < rowCount; ++r) { values[r][c] = table.parseValue(c, TableSnapshot.readString(in)); }
+            }
+        }
+        Row[] result = new Row[rowCount];
+        for (int r = 0; r < rowCount; ++r)
+        {
+            result[r] = new Row(table, values[r]);
+            values[r] = null;
+        }
+        return result;
+    }
+    
+    private static void replaceRows(Table table, Row[] rows)
+    {
+        table.rowsByKey.clear();
+        for (Row row : rows)
+        {
+            table.addRow(row);
+        }
+    }
+    
+    private static String readString(SnapshotInput in)
+        throws IOException
+    {
+        int length = in.getInt();
+        if (length < 0) { return null; }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, PsvRecord.CHARSET);
+    }
+    
+    
+    // static inner classes
+    /** Reads a snapshot through one reusable buffer, refilling it from the channel as values are consumed. */
+    private static class SnapshotInput implements AutoCloseable
+    {
+        // fields
+        private final File file;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        
+        // constructor
+        public SnapshotInput(File _file)
+            throws IOException
+        {
+            this.file = _file;
+            this.channel = FileChannel.open(_file.toPath(), StandardOpenOption.READ);
+            ((Buffer)this.buffer).limit(0);
+        }
+        
+        // instance methods
+        /** Makes at least {@code count} bytes (at most the buffer size) available to read. */
+        private void require(int count)
+            throws IOException
+        {
+            if (this.buffer.remaining() >= count) { return; }
+            this.buffer.compact();
+            while (this.buffer.position() < count)
+            {
+                if (this.channel.read(this.buffer) < 0)
+                {
+                    String message = String.format("Table snapshot %s ends unexpectedly.", this.file);
+                    throw new IllegalArgumentException(message);
+                }
+            }
+            ((Buffer)this.buffer).flip();
+        }
+        
+        public byte get()
+            throws IOException
+        {
+            this.require(1);
+            return this.buffer.get();
+        }
+        
+        public int getInt()
+            throws IOException
+        {
+            this.require(4);
+            return this.buffer.getInt();
+        }
+        
+        public void get(byte[] bytes)
+            throws IOException
+        {
+            int offset = 0;
+            while (offset < bytes.length)
+            {
+                this.require(1);
+                int length = Math.min(this.buffer.remaining(), bytes.length - offset);
+                this.buffer.get(bytes, offset, length);
+                offset += length;
+            }
+        }
+        
+        @Override
+        public void close()
+            throws IOException
+        {
+            this.channel.close();
+        }
+    }
+}
\ No newline at end of file
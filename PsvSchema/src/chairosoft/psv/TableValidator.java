@@ -0,0 +1,355 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 18, 2026
+ * 
+ * TableValidator.java
+ * TableValidator class definition
+ */
+
+package chairosoft.psv;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Loads a PSV file into a {@link Table} while checking its constraints:
+ * value counts, value syntax, required columns, primary key uniqueness and
+ * reference targets. Each violation is added to a {@link ValidationReport}
+ * and the offending line is skipped, so the rest of the file still loads.
+ * <p>
+ * The file is split into partitions that are parsed and checked in
+ * parallel. Rows are then inserted one partition at a time in line order,
+ * so the first of several lines with the same key is the one kept. Last,
+ * references are resolved in parallel; a row whose reference has no target
+ * stays loaded with the reference unresolved.
+ */
+public class TableValidator
+{
+    // fields
+    public final Table table;
+    public final ForkJoinPool pool;
+    
+    // constructors
+    public TableValidator(Table _table)
+    {
+        this(_table, ForkJoinPool.commonPool());
+    }
+    
+    public TableValidator(Table _table, ForkJoinPool _pool)
+    {
+        this.table = _table;
+        this.pool = _pool;
+    }
+    
+    // static methods
+    private static void invokeAll(ForkJoinPool pool, List<? extends ForkJoinTask<?>> tasks)
+    {
+        pool.invoke(new RecursiveAction()
+        {
+            @Override protected void compute() { ForkJoinTask.invokeAll(tasks); }
+        });
+    }
+    
+    // instance methods
+    public ValidationReport load(File file)
+    {
+        ValidationReport result = new ValidationReport();
+        this.load(file, result);
+        return result;
+    }
+    
+    /**
+     * Loads every valid line of the file into the table, adding each
+     * violation found to the report.
+     * @return the number of rows added
+     * @throws IllegalArgumentException if the file cannot be read or its
+     *         header does not match the table
+     */
+    public int load(File file, ValidationReport report)
+    {
+        PsvMetrics.Listener listener = PsvMetrics.getListener();
+        long startNanos = (listener == null) ? 0 : System.nanoTime();
+        MappedPsvRecordSet recordSet = new MappedPsvRecordSet(file, this.table.columns.length);
+        this.table.checkPsvHeader(recordSet.headerRecord, file);
+        
+        List<MappedPsvRecordSet.ChunkTask> chunks = recordSet.splitIntoChunks(this.pool.getParallelism() * MappedPsvRecordSet.CHUNKS_PER_THREAD);
+        ArrayList<PartitionTask> tasks = new ArrayList<>(chunks.size());
+        for (MappedPsvRecordSet.ChunkTask chunk : chunks)
+        {
+            tasks.add(new PartitionTask(recordSet, chunk.segment, chunk.start, chunk.end, report.maxViolations));
+        }
+        TableValidator.invokeAll(this.pool, tasks);
+        
+        int count = 0;
+        long firstLineNumber = 2;
+        for (PartitionTask task : tasks)
+        {
+            task.firstLineNumber = firstLineNumber;
+            count += task.insertRows(file, report);
+            firstLineNumber += task.rows.size();
+        }
+        
+        ArrayList<ReferenceTask> referenceTasks = new ArrayList<>(tasks.size());
+        for (PartitionTask task : tasks)
+        {
+            referenceTasks.add(new ReferenceTask(task, file, report.maxViolations));
+        }
+        TableValidator.invokeAll(this.pool, referenceTasks);
+        for (ReferenceTask task : referenceTasks)
+        {
+            task.violations.forEach(report::add);
+            report.addUnkept(ValidationReport.Kind.MISSING_REFERENCE, task.unkeptCount);
+        }
+        
+        if (listener != null) { listener.fileRead(file, file.length(), count, System.nanoTime() - startNanos); }
+        return count;
+    }
+    
+    
+    // inner classes
+    /** A violation found while parsing, numbered by line within its partition. */
+    private static class PendingViolation
+    {
+        // fields
+        public final ValidationReport.Kind kind;
+        public final int lineIndex;
+        public final String columnName;
+        public final String message;
+        
+        // constructor
+        public PendingViolation(ValidationReport.Kind _kind, int _lineIndex, String _columnName, String _message)
+        {
+            this.kind = _kind;
+            this.lineIndex = _lineIndex;
+            this.columnName = _columnName;
+            this.message = _message;
+        }
+    }
+    
+    private class PartitionTask extends RecursiveAction
+    {
+        // constants
+        private static final long serialVersionUID = 1L;
+        
+        // fields
+        private final MappedPsvRecordSet recordSet;
+        private final ByteBuffer segment;
+        private final int start;
+        private final int end;
+        private final int maxViolations;
+        public final ArrayList<Row> rows = new ArrayList<>();
+        public final ArrayList<PendingViolation> violations = new ArrayList<>();
+        public final long[] unkeptCountsByKind = new long[ValidationReport.Kind.values().length];
+        public final ArrayList<ColumnValue.ReferenceColumnValue> references = new ArrayList<>();
+        public final ArrayList<Integer> referenceLineIndexes = new ArrayList<>();
+        public final ArrayList<Integer> referenceColumnIndexes = new ArrayList<>();
+        public long firstLineNumber = 0;
+        
+        // constructor
+        public PartitionTask(MappedPsvRecordSet _recordSet, ByteBuffer _segment, int _start, int _end, int _maxViolations)
+        {
+            this.recordSet = _recordSet;
+            this.segment = _segment;
+            this.start = _start;
+            this.end = _end;
+            this.maxViolations = _maxViolations;
+        }
+        
+        // instance methods
+        @Override
+        protected void compute()
+        {
+            int lineStart = this.start;
+            while (lineStart < this.end)
+            {
+                int lineEnd = MappedPsvRecordSet.findLineEnd(this.segment, lineStart);
+                String line = this.recordSet.decode(this.segment, lineStart, MappedPsvRecordSet.trimLineEnd(this.segment, lineStart, lineEnd));
+                this.rows.add(this.parseLine(line, this.rows.size()));
+                lineStart = lineEnd + 1;
+            }
+        }
+        
+        /** Parses and checks one line, returning its row or null if the line has violations. */
+        private Row parseLine(String line, int lineIndex)
+        {
+            Table table = TableValidator.this.table;
+            PsvRecord record;
+            try
+            {
+                record = new PsvRecord(line, table.columns.length);
+            }
+            catch (IllegalArgumentException ex)
+            {
+                this.addViolation(ValidationReport.Kind.MALFORMED_LINE, lineIndex, null, ex.getMessage());
+                return null;
+            }
+            
+            boolean isValid = true;
+            int referenceCount = this.references.size();
+            ColumnValue[] values = new ColumnValue[table.columns.length];
+            for (int i = 0; i < values.length; ++i)
+            {
+                Column column = table.columns[i];
+                String literal = record.values[i];
+                if (literal.isEmpty() && column.isRequired)
+                {
+                    this.addViolation(ValidationReport.Kind.MISSING_REQUIRED_VALUE, lineIndex, column.name, "Required value is empty.");
+                    isValid = false;
+                }
+                else if (column.type instanceof ColumnType.ReferenceColumnType)
+                {
+                    ColumnValue.ReferenceColumnValue reference = ColumnValue.ReferenceColumnValue.unresolved(((ColumnType.ReferenceColumnType)column.type).table, literal);
+                    values[i] = reference;
+                    if (literal.isEmpty()) { continue; }
+                    this.references.add(reference);
+                    this.referenceLineIndexes.add(lineIndex);
+                    this.referenceColumnIndexes.add(i);
+                }
+                else
+                {
+                    try
+                    {
+                        values[i] = table.parseValue(i, literal);
+                    }
+                    catch (RuntimeException ex)
+                    {
+                        this.addViolation(ValidationReport.Kind.INVALID_VALUE, lineIndex, column.name, ex.getMessage());
+                        isValid = false;
+                    }
+                }
+            }
+            
+            Row result = null;
+            if (isValid)
+            {
+                try
+                {
+                    result = new Row(table, values);
+                }
+                catch (RuntimeException ex)
+                {
+                    this.addViolation(ValidationReport.Kind.INVALID_VALUE, lineIndex, null, ex.getMessage());
+                }
+            }
+            if (result == null)
+            {
+                this.truncateReferences(referenceCount);
+            }
+            return result;
+        }
+        
+        private void addViolation(ValidationReport.Kind kind, int lineIndex, String columnName, String message)
+        {
+            if (this.violations.size() < this.maxViolations)
+            {
+                this.violations.add(new PendingViolation(kind, lineIndex, columnName, message));
+            }
+            else
+            {
+                ++this.unkeptCountsByKind[kind.ordinal()];
+            }
+        }
+        
+        private void truncateReferences(int size)
+        {
+            while (this.references.size() > size)
+            {
+                int last = this.references.size() - 1;
+                this.references.remove(last);
+                this.referenceLineIndexes.remove(last);
+                this.referenceColumnIndexes.remove(last);
+            }
+        }
+        
+        /**
+         * Adds this partition's parse violations to the report and inserts
+         * its rows in line order, reporting rows whose key is already in the
+         * table (which are then left out). Must be called in partition order.
+         * @return the number of rows added
+         */
+        public int insertRows(File file, ValidationReport report)
+        {
+            Table table = TableValidator.this.table;
+            int result = 0;
+            int violationIndex = 0;
+            for (int i = 0; i < this.rows.size(); ++i)
+            {
+                for (; violationIndex < this.violations.size() && this.violations.get(violationIndex).lineIndex == i; ++violationIndex)
+                {
+                    PendingViolation violation = this.violations.get(violationIndex);
+                    report.add(violation.kind, file, this.firstLineNumber + i, violation.columnName, violation.message);
+                }
+                
+                Row row = this.rows.get(i);
+                if (row == null) { continue; }
+                if (table.rowsByKey.containsKey(row.key))
+                {
+                    String message = String.format("Duplicate primary key (%s) in table (%s).", table.getPsvIdentifierFromRow(row), table.name);
+                    report.add(ValidationReport.Kind.DUPLICATE_KEY, file, this.firstLineNumber + i, null, message);
+                    this.rows.set(i, null);
+                    continue;
+                }
+                table.addRow(row);
+                ++result;
+            }
+            for (ValidationReport.Kind kind : ValidationReport.Kind.values())
+            {
+                report.addUnkept(kind, this.unkeptCountsByKind[kind.ordinal()]);
+            }
+            return result;
+        }
+    }
+    
+    private class ReferenceTask extends RecursiveAction
+    {
+        // constants
+        private static final long serialVersionUID = 1L;
+        
+        // fields
+        private final PartitionTask partition;
+        private final File file;
+        private final int maxViolations;
+        public final ArrayList<ValidationReport.Violation> violations = new ArrayList<>();
+        public long unkeptCount = 0;
+        
+        // constructor
+        public ReferenceTask(PartitionTask _partition, File _file, int _maxViolations)
+        {
+            this.partition = _partition;
+            this.file = _file;
+            this.maxViolations = _maxViolations;
+        }
+        
+        // instance methods
+        @Override
+        protected void compute()
+        {
+            PartitionTask partition = this.partition;
+            for (int i = 0; i < partition.references.size(); ++i)
+            {
+                int lineIndex = partition.referenceLineIndexes.get(i);
+                if (partition.rows.get(lineIndex) == null) { continue; }
+                try
+                {
+                    partition.references.get(i).resolve();
+                }
+                catch (RuntimeException ex)
+                {
+                    if (this.violations.size() >= this.maxViolations)
+                    {
+                        ++this.unkeptCount;
+                        continue;
+                    }
+                    String columnName = TableValidator.this.table.columns[partition.referenceColumnIndexes.get(i)].name;
+                    this.violations.add(new ValidationReport.Violation(ValidationReport.Kind.MISSING_REFERENCE, this.file, partition.firstLineNumber + lineIndex, columnName, ex.getMessage()));
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+/*
+ * Nicholas Saney
+ * 
+ * Created: October 18, 2026
+ * 
+ * ValidationReport.java
+ * ValidationReport class definition
+ */
+
+package chairosoft.psv;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The constraint violations found while loading, kept instead of thrown so
+ * that one bad line does not stop a load. Only the first
+ * {@code maxViolations} violations are kept, but every violation is
+ * counted. Violations may be added from several threads at once.
+ */
+public class ValidationReport
+{
+    // constants
+    public static final int DEFAULT_MAX_VIOLATIONS = 1000;
+    
+    // fields
+    public final int maxViolations;
+    private final ArrayList<Violation> violations = new ArrayList<>();
+    private final AtomicLongArray countsByKind = new AtomicLongArray(Kind.values().length);
+    
+    // constructors
+    public ValidationReport()
+    {
+        this(DEFAULT_MAX_VIOLATIONS);
+    }
+    
+    public ValidationReport(int _maxViolations)
+    {
+        this.maxViolations = _maxViolations;
+    }
+    
+    // instance methods
+    /** Counts the violation and keeps it if the report is not full yet; returns whether it was kept. */
+    public boolean add(Violation violation)
+    {
+        this.countsByKind.incrementAndGet(violation.kind.ordinal());
+        synchronized (this.violations)
+        {
+            if (this.violations.size() >= this.maxViolations) { return false; }
+            this.violations.add(violation);
+            return true;
+        }
+    }
+    
+    public boolean add(Kind kind, File file, long lineNumber, String columnName, String message)
+    {
+        return this.add(new Violation(kind, file, lineNumber, columnName, message));
+    }
+    
+    /** Counts violations that were found but not kept, e.g. because a partition reached the bound before the report did. */
+    public void addUnkept(Kind kind, long count)
+    {
+        this.countsByKind.addAndGet(kind.ordinal(), count);
+    }
+    
+    public long getViolationCount(Kind kind)
+    {
+        return this.countsByKind.get(kind.ordinal());
+    }
+    
+    public long getViolationCount()
+    {
+        long result = 0;
+        for (int i = 0; i < this.countsByKind.length(); ++i) { result += this.countsByKind.get(i); }
+        return result;
+    }
+    
+    public boolean isValid()
+    {
+        return this.getViolationCount() == 0;
+    }
+    
+    /** Whether more violations were found than were kept. */
+    public boolean isTruncated()
+    {
+        synchronized (this.violations)
+        {
+            return this.getViolationCount() > this.violations.size();
+        }
+    }
+    
+    /** A copy of the violations kept so far, in the order they were added. */
+    public List<Violation> getViolations()
+    {
+        synchronized (this.violations)
+        {
+            return new ArrayList<>(this.violations);
+        }
+    }
+    
+    /**
+     * Throws an {@link IllegalStateException} describing the first
+     * violation (and suppressing the next few) if there are any.
+     */
+    public void throwIfInvalid()
+    {
+        if (this.isValid()) { return; }
+        List<Violation> violations = this.getViolations();
+        String message = String.format("%s constraint violations found (%s). First: %s", this.getViolationCount(), this, violations.isEmpty() ? "none kept" : violations.get(0));
+        IllegalStateException ex = new IllegalStateException(message);
+        violations.stream().skip(1).limit(9).forEach(v -> ex.addSuppressed(new IllegalStateException(v.toString())));
+        throw ex;
+    }
+    
+    @Override
+    public String toString()
+    {
+        StringBuilder result = new StringBuilder();
+        for (Kind kind : Kind.values())
+        {
+            if (result.length() > 0) { result.append(", "); }
+            result.append(this.getViolationCount(kind)).append(' ').append(kind.description);
+        }
+        return result.toString();
+    }
+    
+    
+    // static inner classes
+    public enum Kind
+    {
+        MALFORMED_LINE("malformed lines"),
+        INVALID_VALUE("invalid values"),
+        MISSING_REQUIRED_VALUE("missing required values"),
+        DUPLICATE_KEY("duplicate keys"),
+        MISSING_REFERENCE("missing references");
+        
+        public final String description;
+        private Kind(String _description) { this.description = _description; }
+    }
+    
+    public static class Violation
+    {
+        // fields
+        public final Kind kind;
+        public final File file;
+        public final long lineNumber;
+        public final String columnName;
+        public final String message;
+        
+        // constructor
+        public Violation(Kind _kind, File _file, long _lineNumber, String _columnName, String _message)
+        {
+            this.kind = _kind;
+            this.file = _file;
+            this.lineNumber = _lineNumber;
+            this.columnName = _columnName;
+            this.message = _message;
+        }
+        
+        // instance methods
+        @Override
+        public String toString()
+        {
+            String column = (this.columnName == null) ? "" : String.format(" column (%s)", this.columnName);
+            return String.format("Error in line %s%s of file %s: %s", this.lineNumber, column, this.file, this.message);
+        }
+    }
+}
\ No newline at end of file